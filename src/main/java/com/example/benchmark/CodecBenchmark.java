@@ -0,0 +1,84 @@
+package com.example.benchmark;
+
+import com.example.model.Employee;
+import com.google.gson.reflect.TypeToken;
+import com.vcinsidedigital.webcore.codec.CborCodec;
+import com.vcinsidedigital.webcore.codec.Codec;
+import com.vcinsidedigital.webcore.codec.GsonCodec;
+import com.vcinsidedigital.webcore.codec.TypeCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares payload size and encode/decode time of the JSON and CBOR codecs
+ *
+ * Run: java -cp target/classes:gson.jar com.example.benchmark.CodecBenchmark [employees] [iterations]
+ */
+public class CodecBenchmark {
+    private static final Type EMPLOYEE_LIST = new TypeToken<List<Employee>>() {}.getType();
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        List<Employee> employees = new ArrayList<>(size);
+        String[] roles = {"Developer", "Manager", "Designer", "Analyst"};
+        for (int i = 0; i < size; i++) {
+            employees.add(new Employee((long) i, "Employee " + i, roles[i % roles.length]));
+        }
+
+        System.out.println("\n📊 Codec benchmark: " + size + " employees, " + iterations + " iterations\n");
+        System.out.printf("  %-18s %12s %12s %12s %12s%n", "Media type", "Bytes", "Gzip bytes", "Encode ms", "Decode ms");
+
+        for (Codec codec : List.of(new GsonCodec(), new CborCodec())) {
+            run(codec, employees, iterations);
+        }
+        System.out.println();
+    }
+
+    private static void run(Codec codec, List<Employee> employees, int iterations) throws IOException {
+        TypeCodec<List<Employee>> typeCodec = codec.forType(EMPLOYEE_LIST);
+        byte[] encoded = typeCodec.encode(employees);
+
+        List<Employee> decoded = typeCodec.decode(new ByteArrayInputStream(encoded));
+        if (decoded.size() != employees.size()
+                || !decoded.get(decoded.size() - 1).getName().equals(employees.get(employees.size() - 1).getName())) {
+            throw new IllegalStateException(codec.getMediaType() + " round trip failed");
+        }
+
+        // Warm up both paths before measuring
+        for (int i = 0; i < iterations; i++) {
+            typeCodec.encode(employees);
+            typeCodec.decode(new ByteArrayInputStream(encoded));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            typeCodec.encode(employees);
+        }
+        double encodeMillis = (System.nanoTime() - start) / 1e6 / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            typeCodec.decode(new ByteArrayInputStream(encoded));
+        }
+        double decodeMillis = (System.nanoTime() - start) / 1e6 / iterations;
+
+        System.out.printf("  %-18s %12d %12d %12.2f %12.2f%n",
+                codec.getMediaType(), encoded.length, gzipSize(encoded), encodeMillis, decodeMillis);
+    }
+
+    private static int gzipSize(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.size();
+    }
+}
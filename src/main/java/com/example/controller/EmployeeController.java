@@ -3,6 +3,13 @@ package com.example.controller;
 import com.example.model.Employee;
 import com.example.service.EmployeeService;
 import com.vcinsidedigital.webcore.annotations.*;
+import com.vcinsidedigital.webcore.http.HttpResponse;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
@@ -12,11 +19,38 @@ public class EmployeeController {
     private EmployeeService employeeService;
 
     @Get("/employees")
+    @ETag(version = "employeesVersion")
+    @SingleFlight
     public List<Employee> getAllEmployees() {
         return employeeService.getAllEmployees();
     }
 
+    /**
+     * Version of the list: a client polling with If-None-Match gets 304 without the list being serialized
+     */
+    public long employeesVersion() {
+        return employeeService.getEmployeesVersion();
+    }
+
+    @Get("/employees/export")
+    public HttpResponse exportEmployees() {
+        // Rows are written as the client reads them instead of building the CSV in memory
+        Iterator<Employee> employees = employeeService.getAllEmployees().iterator();
+        return new HttpResponse()
+                .contentType("text/csv")
+                .stream(out -> {
+                    Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                    writer.write("id,name,role\n");
+                    while (employees.hasNext()) {
+                        Employee employee = employees.next();
+                        writer.write(employee.getId() + "," + employee.getName() + "," + employee.getRole() + "\n");
+                    }
+                    writer.flush();
+                });
+    }
+
     @Get("/employees/{id}")
+    @ETag
     public Employee getEmployee(@Path("id") Long id) {
         return employeeService.getEmployeeById(id);
     }
@@ -26,6 +60,16 @@ public class EmployeeController {
         return employeeService.createEmployee(employee);
     }
 
+    @Post("/employees/import")
+    public List<Employee> importEmployees(@Body List<Employee> employees) {
+        // The JSON array is parsed straight from the request stream
+        List<Employee> created = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            created.add(employeeService.createEmployee(employee));
+        }
+        return created;
+    }
+
     @Put("/employees/{id}")
     public Employee updateEmployee(@Path("id") Long id, @Body Employee employee) {
         return employeeService.updateEmployee(id, employee);
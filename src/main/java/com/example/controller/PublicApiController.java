@@ -4,6 +4,7 @@ import com.example.middleware.CorsMiddleware;
 import com.example.middleware.LoggingMiddleware;
 import com.example.model.Employee;
 import com.example.service.EmployeeService;
+import com.vcinsidedigital.webcore.WebServerApplication;
 import com.vcinsidedigital.webcore.annotations.*;
 import com.vcinsidedigital.webcore.http.HttpStatus;
 
@@ -16,14 +17,16 @@ public class PublicApiController {
     @Inject
     private EmployeeService employeeService;
 
-    // GET /api/public/employees - Accessible from any origin
+    // GET /public/employees - Accessible from any origin, cached for 30 seconds
     @Get("/employees")
+    @Cacheable(ttl = 30)
     public List<Employee> getAllEmployees() {
         return employeeService.getAllEmployees();
     }
 
-    // GET /api/public/employees/{id} - Accessible from any origin
+    // GET /public/employees/{id} - Accessible from any origin, cached for 30 seconds
     @Get("/employees/{id}")
+    @Cacheable(ttl = 30)
     public Employee getEmployee(@Path("id") Long id) {
         return employeeService.getEmployeeById(id);
     }
@@ -32,7 +35,10 @@ public class PublicApiController {
     @ResponseStatus(HttpStatus.CREATED)
     @Post("/employees")
     public Employee createEmployee(@Body Employee employee) {
-        return employeeService.createEmployee(employee);
+        Employee created = employeeService.createEmployee(employee);
+        // The cached list no longer matches: drop it instead of waiting for the TTL
+        WebServerApplication.getRouter().getResponseCache().invalidateRoute("GET", "/public/employees");
+        return created;
     }
 
     // Health check endpoint
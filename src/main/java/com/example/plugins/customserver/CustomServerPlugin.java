@@ -8,8 +8,10 @@ import com.vcinsidedigital.webcore.annotations.Plugin;
 import com.vcinsidedigital.webcore.http.HttpRequest;
 import com.vcinsidedigital.webcore.http.HttpResponse;
 import com.vcinsidedigital.webcore.plugin.AbstractPlugin;
+import com.vcinsidedigital.webcore.server.ResponseCompression;
 import com.vcinsidedigital.webcore.server.ServerConfiguration;
 import com.vcinsidedigital.webcore.server.ServerCustomizer;
+import com.vcinsidedigital.webcore.server.StaticResourceGateway;
 
 @Plugin
 public class CustomServerPlugin extends AbstractPlugin
@@ -18,6 +20,8 @@ public class CustomServerPlugin extends AbstractPlugin
     public void onLoad(WebServerApplication application) {
         ServerCustomizer.getInstance().registerGateway(new SessionGateway());
         ServerCustomizer.getInstance().registerGateway(new MetricsGateway());
+        ServerCustomizer.getInstance().registerGateway(
+                StaticResourceGateway.classpath("/assets", "static").setCacheControl("public, max-age=3600"));
     }
 
     @Override
@@ -53,6 +57,11 @@ public class CustomServerPlugin extends AbstractPlugin
                 return "localhost";
             }
 
+            @Override
+            public ResponseCompression getCompression() {
+                return new ResponseCompression().setMinSize(512);
+            }
+
             @Override
             public HttpRequest customizeRequest(HttpExchange exchange) throws Exception {
                 return ServerConfiguration.super.customizeRequest(exchange);
@@ -1,6 +1,9 @@
 package com.example.plugins.customserver.gateway;
 
 import com.sun.net.httpserver.HttpServer;
+import com.vcinsidedigital.webcore.WebServerApplication;
+import com.vcinsidedigital.webcore.routing.RequestCoalescer;
+import com.vcinsidedigital.webcore.routing.ResponseCache;
 import com.vcinsidedigital.webcore.server.Gateway;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -20,12 +23,26 @@ public class MetricsGateway implements Gateway
         server.createContext("/metrics", exchange -> {
             long uptime = System.currentTimeMillis() - startTime;
             long requests = requestCount.get();
+            ResponseCache cache = WebServerApplication.getRouter().getResponseCache();
+            RequestCoalescer coalescer = WebServerApplication.getRouter().getRequestCoalescer();
 
             String metrics = String.format(
-                    "{\"uptime\": %d, \"requests\": %d, \"requestsPerSecond\": %.2f}",
+                    "{\"uptime\": %d, \"requests\": %d, \"requestsPerSecond\": %.2f, " +
+                    "\"responseCache\": {\"hits\": %d, \"misses\": %d, \"evictions\": %d, " +
+                    "\"expirations\": %d, \"entries\": %d, \"bytes\": %d}, " +
+                    "\"singleFlight\": {\"executions\": %d, \"collapsed\": %d, \"inFlight\": %d}}",
                     uptime / 1000,
                     requests,
-                    (requests * 1000.0) / uptime
+                    (requests * 1000.0) / uptime,
+                    cache.getHits(),
+                    cache.getMisses(),
+                    cache.getEvictions(),
+                    cache.getExpirations(),
+                    cache.getEntryCount(),
+                    cache.getSize(),
+                    coalescer.getExecutions(),
+                    coalescer.getCollapsed(),
+                    coalescer.getInFlight()
             );
 
             exchange.getResponseHeaders().set("Content-Type", "application/json");
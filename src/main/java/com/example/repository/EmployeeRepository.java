@@ -10,6 +10,8 @@ import java.util.concurrent.atomic.AtomicLong;
 public class EmployeeRepository {
     private final Map<Long, Employee> database = new ConcurrentHashMap<>();
     private final AtomicLong idGenerator = new AtomicLong(1);
+    // Incremented on every change, used as the ETag of the employee list
+    private final AtomicLong version = new AtomicLong();
 
     public EmployeeRepository() {
         // Dados iniciais
@@ -31,15 +33,21 @@ public class EmployeeRepository {
             employee.setId(idGenerator.getAndIncrement());
         }
         database.put(employee.getId(), employee);
+        version.incrementAndGet();
         return employee;
     }
 
     public void deleteById(Long id) {
         database.remove(id);
+        version.incrementAndGet();
     }
 
     public boolean existsById(Long id) {
         return database.containsKey(id);
     }
+
+    public long getVersion() {
+        return version.get();
+    }
 }
 
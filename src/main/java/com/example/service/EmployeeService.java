@@ -17,6 +17,10 @@ public class EmployeeService {
         return repository.findAll();
     }
 
+    public long getEmployeesVersion() {
+        return repository.getVersion();
+    }
+
     public Employee getEmployeeById(Long id) {
         return repository.findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException(id));
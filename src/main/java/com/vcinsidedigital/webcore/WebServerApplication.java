@@ -7,25 +7,47 @@ import com.vcinsidedigital.webcore.extensibility.ComponentAnnotationHandler;
 import com.vcinsidedigital.webcore.plugin.DuplicatePluginException;
 import com.vcinsidedigital.webcore.plugin.PluginInterface;
 import com.vcinsidedigital.webcore.plugin.PluginManager;
+import com.vcinsidedigital.webcore.routing.InvocationStrategy;
+import com.vcinsidedigital.webcore.routing.JsonWriteMode;
+import com.vcinsidedigital.webcore.routing.ResponseCache;
 import com.vcinsidedigital.webcore.routing.Router;
 import com.vcinsidedigital.webcore.http.*;
 import com.sun.net.httpserver.*;
-import com.vcinsidedigital.webcore.server.Gateway;
+import com.vcinsidedigital.webcore.server.AdmissionController;
+import com.vcinsidedigital.webcore.server.ExecutorType;
+import com.vcinsidedigital.webcore.server.ExchangeCodec;
+import com.vcinsidedigital.webcore.server.HttpServerEngine;
+import com.vcinsidedigital.webcore.server.ResponseCompression;
 import com.vcinsidedigital.webcore.server.ServerCustomizer;
+import com.vcinsidedigital.webcore.server.ServerEngine;
+import com.vcinsidedigital.webcore.server.ServerEngineType;
+import com.vcinsidedigital.webcore.server.ServerExecutors;
+import com.vcinsidedigital.webcore.server.ServerOptions;
 
 import java.io.*;
-import java.net.InetSocketAddress;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.zip.Deflater;
 
 public abstract class WebServerApplication {
 
     private static DIContainer container;
     private static Router router;
-    private static HttpServer server;
+    private static ServerEngine serverEngine;
+    private static Executor executor;
+    private static Executor workerExecutor;
+    private static boolean ownsExecutor;
+    private static AdmissionController admissionController;
+    private static ServerEngineType engineType = ServerEngineType.JDK;
+    private static long maxBodySize = ServerOptions.DEFAULT_MAX_BODY_SIZE;
     private static final PluginManager pluginManager = new PluginManager();
     private static int port = 8080;
     private static String hostName = "localhost";
+    private static boolean scanTimings;
+    // Shared by all startup phases: each package is read from the classpath once
+    private static PackageScanner scanner;
 
     public static void run(Class<?> applicationClass, String[] args) {
         try {
@@ -36,10 +58,19 @@ public abstract class WebServerApplication {
             // Parse port from args
             port = parsePort(args);
             hostName = parseHost(args);
+            engineType = parseEngineType(args);
+            maxBodySize = parseMaxBodySize(args);
+            scanTimings = Arrays.asList(args).contains("--scan-timings");
 
             // Initialize container, router and plugin manager
             container = new DIContainer();
-            router = new Router();
+            router = new Router(container);
+            router.setInvocationStrategy(parseInvocationStrategy(args));
+            router.setJsonWriteMode(parseJsonWriteMode(args));
+            router.setAutoETags(Arrays.asList(args).contains("--etags"));
+            router.getResponseCache().setMaxSize(parseSizeArg(args, "response-cache-size", ResponseCache.DEFAULT_MAX_SIZE));
+            scanner = new PackageScanner();
+            scanner.setClassLoader(Thread.currentThread().getContextClassLoader());
 
             // Get base package
             String basePackage = getBasePackage(applicationClass);
@@ -51,7 +82,7 @@ public abstract class WebServerApplication {
             // ===== FASE 2: Carregar plugins (registra handlers customizados) =====
             pluginManager.loadPlugins(getInstance());
 
-            // ===== FASE 3: Escanear pacote principal NOVAMENTE (agora com handlers registrados) =====
+            // ===== FASE 3: Filtrar o pacote principal NOVAMENTE (agora com handlers registrados, sem reler o classpath) =====
             System.out.println("\n📦 Scanning package: " + basePackage);
             scanAndRegister(basePackage);
 
@@ -68,10 +99,18 @@ public abstract class WebServerApplication {
             // Register controllers (from both app and plugins)
             System.out.println("\n🔌 Registering routes:");
             registerControllers();
+            scanner.clearCache();
 
             // Start plugins
             pluginManager.startPlugins(getInstance());
 
+            // Response compression (a plugin's ServerConfiguration wins over args)
+            configureCompression(args);
+
+            // Create the request executor (shared with plugin-started servers)
+            workerExecutor = createExecutor(args);
+            executor = applyAdmissionControl(workerExecutor, args);
+
             // Check if any plugin wants to handle server initialization
             if (pluginManager.hasServerInitializer()) {
                 System.out.println("\n🚀 Starting HTTP server via plugin...");
@@ -122,6 +161,25 @@ public abstract class WebServerApplication {
         return port;
     }
 
+    /**
+     * Executor that runs request handlers, as configured by --executor/--threads or a plugin
+     * Engines started through startServer() receive it in ServerOptions; plugins running their
+     * own HttpServer should pass it to setExecutor() and add getAdmissionController().getSheddingFilter()
+     * to each of their contexts
+     * @return the executor, or null when handlers run on the dispatcher thread (--executor=direct)
+     */
+    public static Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Admission control counters (accepted, queued, shed)
+     * @return the controller, or null if --max-in-flight was not set
+     */
+    public static AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
     private static int parsePort(String[] args) {
         for (String arg : args) {
             if (arg.startsWith("--port=")) {
@@ -140,6 +198,145 @@ public abstract class WebServerApplication {
         return "localhost";
     }
 
+    private static InvocationStrategy parseInvocationStrategy(String[] args) {
+        return parseEnumArg(args, "invoker", InvocationStrategy.METHOD_HANDLE, InvocationStrategy::fromName);
+    }
+
+    private static JsonWriteMode parseJsonWriteMode(String[] args) {
+        return parseEnumArg(args, "json", JsonWriteMode.BUFFERED, JsonWriteMode::fromName);
+    }
+
+    private static ExecutorType parseExecutorType(String[] args) {
+        return parseEnumArg(args, "executor", ExecutorType.PLATFORM, ExecutorType::fromName);
+    }
+
+    private static ServerEngineType parseEngineType(String[] args) {
+        return parseEnumArg(args, "engine", ServerEngineType.JDK, ServerEngineType::fromName);
+    }
+
+    /**
+     * Enum flag such as --engine=nio; an unknown value is reported with the valid choices and the default is kept
+     */
+    private static <E extends Enum<E>> E parseEnumArg(String[] args, String name, E defaultValue, Function<String, E> fromName) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                try {
+                    return fromName.apply(arg.substring(prefix.length()));
+                } catch (IllegalArgumentException e) {
+                    StringJoiner choices = new StringJoiner(", ");
+                    for (E constant : defaultValue.getDeclaringClass().getEnumConstants()) {
+                        choices.add(flagName(constant));
+                    }
+                    warnInvalidArg(arg, "expected one of: " + choices, flagName(defaultValue));
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static String flagName(Enum<?> constant) {
+        return constant.name().toLowerCase().replace('_', '-');
+    }
+
+    private static void warnInvalidArg(String arg, String expected, Object defaultValue) {
+        System.err.println("⚠️  Invalid " + arg + " (" + expected + "), using " + defaultValue);
+    }
+
+    /**
+     * --max-body-size in bytes, with an optional k/m/g suffix (e.g. 10m)
+     */
+    private static long parseMaxBodySize(String[] args) {
+        return parseSizeArg(args, "max-body-size", ServerOptions.DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * Size in bytes, with an optional k/m/g suffix (e.g. --response-cache-size=64m)
+     */
+    private static long parseSizeArg(String[] args, String name, long defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                String value = arg.substring(prefix.length()).trim().toLowerCase();
+                long unit = 1;
+                if (value.endsWith("k")) unit = 1024;
+                else if (value.endsWith("m")) unit = 1024 * 1024;
+                else if (value.endsWith("g")) unit = 1024 * 1024 * 1024;
+                if (unit > 1) value = value.substring(0, value.length() - 1);
+                try {
+                    return Long.parseLong(value) * unit;
+                } catch (NumberFormatException e) {
+                    warnInvalidArg(arg, "expected a size such as 512k or 10m", defaultValue);
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int parseIntArg(String[] args, String name, int defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                try {
+                    return Integer.parseInt(arg.substring(prefix.length()));
+                } catch (NumberFormatException e) {
+                    warnInvalidArg(arg, "expected a number", defaultValue);
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static void configureCompression(String[] args) {
+        ServerCustomizer customizer = ServerCustomizer.getInstance();
+        for (String arg : args) {
+            if (arg.equals("--compression") || arg.equals("--compression=on")) {
+                customizer.setDefaultCompression(new ResponseCompression()
+                        .setMinSize(parseIntArg(args, "compression-min-size", 1024))
+                        .setLevel(parseIntArg(args, "compression-level", Deflater.DEFAULT_COMPRESSION)));
+            }
+        }
+
+        ResponseCompression compression = customizer.getCompression();
+        if (compression != null) {
+            System.out.println("\n⚙️  Compression: gzip, deflate (min " + compression.getMinSize() + " bytes)");
+        }
+    }
+
+    private static Executor createExecutor(String[] args) {
+        // Executor from a plugin's ServerConfiguration wins over args
+        Executor customExecutor = ServerCustomizer.getInstance().getCustomExecutor();
+        if (customExecutor != null) {
+            System.out.println("\n⚙️  Executor: custom (" + customExecutor.getClass().getSimpleName() + ")");
+            ownsExecutor = false;
+            return customExecutor;
+        }
+
+        ExecutorType type = parseExecutorType(args);
+        int threads = parseIntArg(args, "threads", ServerExecutors.defaultThreads());
+        System.out.println("\n⚙️  Executor: " + type.name().toLowerCase() +
+                (type == ExecutorType.PLATFORM ? " (" + threads + " threads)" : ""));
+        ownsExecutor = true;
+        return ServerExecutors.create(type, threads);
+    }
+
+    private static Executor applyAdmissionControl(Executor workerExecutor, String[] args) {
+        int maxInFlight = parseIntArg(args, "max-in-flight", 0);
+        if (maxInFlight <= 0) {
+            return workerExecutor;
+        }
+        if (workerExecutor == null) {
+            System.err.println("  ├─ ⚠️  --max-in-flight ignored with --executor=direct");
+            return null;
+        }
+
+        int maxQueued = parseIntArg(args, "max-queued", maxInFlight);
+        int retryAfter = parseIntArg(args, "retry-after", 1);
+        admissionController = new AdmissionController(workerExecutor, maxInFlight, maxQueued, retryAfter);
+        System.out.println("⚙️  Admission control: " + maxInFlight + " in flight, " + maxQueued + " queued");
+        return admissionController;
+    }
+
     private static String getBasePackage(Class<?> applicationClass) {
         if (applicationClass.isAnnotationPresent(WebApplication.class)) {
             WebApplication annotation = applicationClass.getAnnotation(WebApplication.class);
@@ -154,10 +351,9 @@ public abstract class WebServerApplication {
      * Fase 1: Descobre e registra APENAS plugins (não registra outros componentes ainda)
      */
     private static void discoverAndRegisterPlugins(String basePackage) {
-        PackageScanner scanner = new PackageScanner();
-        scanner.setClassLoader(Thread.currentThread().getContextClassLoader());
-
+        int scans = scanner.getRootTimings().size();
         Set<Class<?>> classes = scanner.scanPackage(basePackage);
+        printScanTimings(scans);
 
         List<Class<?>> pluginClasses = new ArrayList<>();
 
@@ -198,11 +394,9 @@ public abstract class WebServerApplication {
     }
 
     private static void scanAndRegister(String basePackage) {
-        PackageScanner scanner = new PackageScanner();
-
-        scanner.setClassLoader(Thread.currentThread().getContextClassLoader());
-
+        int scans = scanner.getRootTimings().size();
         Set<Class<?>> classes = scanner.scanPackage(basePackage);
+        printScanTimings(scans);
 
         System.out.println("  Found " + classes.size() + " components:");
 
@@ -233,12 +427,22 @@ public abstract class WebServerApplication {
         }
     }
 
-    private static void registerControllers() {
-        PackageScanner scanner = new PackageScanner();
-
-        scanner.setClassLoader(Thread.currentThread().getContextClassLoader());
+    /**
+     * Per-root times of the latest scan, with --scan-timings
+     */
+    private static void printScanTimings(int from) {
+        if (!scanTimings) {
+            return;
+        }
+        List<RootTiming> timings = scanner.getRootTimings();
+        for (RootTiming timing : timings.subList(from, timings.size())) {
+            System.out.println("  ⏱️  " + timing);
+        }
+    }
 
-        for (Object instance : container.getAllInstances()) {
+    private static void registerControllers() {
+        // Copy first: routing a controller may create middleware instances in the container
+        for (Object instance : new ArrayList<>(container.getAllInstances())) {
             Class<?> clazz = instance.getClass();
 
             // Check built-in controller annotations
@@ -262,140 +466,62 @@ public abstract class WebServerApplication {
     }
 
     private static void startHttpServer() throws IOException {
+        startServer(new HttpServerEngine());
+    }
+
+    /**
+     * Transport settings resolved from args and plugin ServerConfigurations
+     * Returns a copy: plugins may change it before passing it to startServer()
+     */
+    public static ServerOptions getServerOptions() {
         // Apply custom port/host from plugins
         Integer customPort = ServerCustomizer.getInstance().getCustomPort();
         String customHost = ServerCustomizer.getInstance().getCustomHost();
 
-        int finalPort = customPort != null ? customPort : port;
-        String finalHost = customHost != null ? customHost : hostName;
-
-        server = HttpServer.create(new InetSocketAddress(finalHost, finalPort), 0);
-
-        // Initialize gateways
-        List<Gateway> gateways = ServerCustomizer.getInstance().getGateways();
-        if (!gateways.isEmpty()) {
-            System.out.println("\n🔌 Initializing gateways:");
-            for (Gateway gateway : gateways) {
-                try {
-                    gateway.initialize(server);
-                    System.out.println("  ├─ " + gateway.getName() + " initialized");
-                } catch (Exception e) {
-                    System.err.println("  ├─ ❌ Failed to initialize gateway: " + gateway.getName());
-                    e.printStackTrace();
-                }
-            }
-        }
-
-        server.createContext("/", exchange -> {
-            try {
-                // Custom request parsing
-                HttpRequest request = ServerCustomizer.getInstance().customizeRequest(exchange);
-                if (request == null) {
-                    request = parseRequest(exchange); // Use default
-                }
-
-                HttpResponse response = router.handleRequest(request);
-
-                // Custom response handling
-                ServerCustomizer.getInstance().customizeResponse(response, exchange);
-
-                sendResponse(exchange, response);
-            } catch (Exception e) {
-                e.printStackTrace();
-                sendErrorResponse(exchange, 500, "Internal Server Error");
-            }
-        });
+        return new ServerOptions()
+                .host(customHost != null ? customHost : hostName)
+                .port(customPort != null ? customPort : port)
+                .engineType(engineType)
+                .maxBodySize(maxBodySize)
+                .executor(executor)
+                .gateways(ServerCustomizer.getInstance().getGateways());
+    }
 
-        server.setExecutor(null);
-        server.start();
+    /**
+     * Start an engine with the application's router and options
+     * The engine is stopped on shutdown
+     */
+    public static void startServer(ServerEngine engine) throws IOException {
+        startServer(engine, getServerOptions());
+    }
 
-        // Start gateways
-        for (Gateway gateway : gateways) {
-            try {
-                gateway.onStart();
-            } catch (Exception e) {
-                System.err.println("  ├─ ❌ Error starting gateway: " + gateway.getName());
-                e.printStackTrace();
-            }
-        }
+    public static void startServer(ServerEngine engine, ServerOptions options) throws IOException {
+        engine.start(router, options);
+        serverEngine = engine;
 
         System.out.println("\n╔════════════════════════════════════════════════════╗");
         System.out.println("║   ✅ Application started successfully!             ║");
-        System.out.println("║   🌐 Server running at: http://" + finalHost + ":" + finalPort + "      ║");
+        String host = options.getHost() != null ? options.getHost() : "0.0.0.0";
+        System.out.println("║   🌐 Server running at: http://" + host + ":" + options.getPort() + "      ║");
         System.out.println("║   📝 Press Ctrl+C to stop                          ║");
         System.out.println("╚════════════════════════════════════════════════════╝\n");
     }
 
-    private static HttpRequest parseRequest(HttpExchange exchange) throws IOException {
-        String method = exchange.getRequestMethod();
-        String path = exchange.getRequestURI().getPath();
-
-        Map<String, String> queryParams = parseQueryParams(exchange.getRequestURI().getQuery());
-
-        String body = null;
-        if ("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method)) {
-            body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
-        }
-
-        Map<String, String> headers = new HashMap<>();
-        exchange.getRequestHeaders().forEach((key, values) -> {
-            if (!values.isEmpty()) {
-                headers.put(key, values.get(0));
-            }
-        });
-
-        return new HttpRequest(method, path, new HashMap<>(), queryParams, body, headers);
-    }
-
-    private static Map<String, String> parseQueryParams(String query) {
-        Map<String, String> params = new HashMap<>();
-        if (query != null && !query.isEmpty()) {
-            for (String param : query.split("&")) {
-                String[] pair = param.split("=", 2);
-                if (pair.length == 2) {
-                    params.put(pair[0], pair[1]);
-                }
-            }
-        }
-        return params;
-    }
-
     public static void sendResponse(HttpExchange exchange, HttpResponse response) throws IOException {
-        exchange.getResponseHeaders().set("Content-Type", response.getContentType());
-        response.getHeaders().forEach((key, value) ->
-                exchange.getResponseHeaders().set(key, value));
-
-        byte[] bytes = response.getBody() != null ?
-                response.getBody().getBytes(StandardCharsets.UTF_8) : new byte[0];
-
-        exchange.sendResponseHeaders(response.getStatusCode(), bytes.length);
-
-        if (bytes.length > 0) {
-            OutputStream os = exchange.getResponseBody();
-            os.write(bytes);
-            os.close();
-        }
-
-        exchange.close();
+        ExchangeCodec.sendResponse(exchange, response);
     }
 
     public static void sendErrorResponse(HttpExchange exchange, int status, String message) throws IOException {
-        String body = "{\"error\": \"" + message + "\"}";
-        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
-
-        exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.sendResponseHeaders(status, bytes.length);
-
-        OutputStream os = exchange.getResponseBody();
-        os.write(bytes);
-        os.close();
-        exchange.close();
+        ExchangeCodec.sendErrorResponse(exchange, status, message);
     }
 
     private static void stop() {
-        if (server != null) {
+        if (serverEngine != null) {
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                server.stop(0);
+                serverEngine.stop(0);
+                if (ownsExecutor && workerExecutor instanceof ExecutorService) {
+                    ((ExecutorService) workerExecutor).shutdown();
+                }
                 WebServerApplication app = getInstance();
                 pluginManager.stopPlugins(app);
                 System.out.println("Server stopped.");
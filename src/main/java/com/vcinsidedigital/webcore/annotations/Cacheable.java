@@ -0,0 +1,31 @@
+package com.vcinsidedigital.webcore.annotations;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache the encoded responses of this GET handler in the Router's ResponseCache
+ *
+ * A hit skips parameter binding, the handler and serialization. Middlewares still run first.
+ * <pre>
+ * &#64;Get("/employees")
+ * &#64;Cacheable(ttl = 30, key = {"query:page", "header:Accept-Language"})
+ * public List&lt;Employee&gt; getAllEmployees(@Query("page") Integer page) { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+    /**
+     * How long a response stays cached
+     */
+    long ttl() default 60;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * Request parts in the cache key besides method and path: "query:name" or "header:Name"
+     * When empty, every query parameter is part of the key
+     */
+    String[] key() default {};
+}
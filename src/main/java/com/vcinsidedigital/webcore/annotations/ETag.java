@@ -0,0 +1,27 @@
+package com.vcinsidedigital.webcore.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Send an ETag with this GET handler's responses and answer a matching If-None-Match with 304
+ *
+ * By default the ETag is a hash of the encoded body. With a version method, the ETag comes from a
+ * cheap version token instead, and a matching request is answered before the handler runs,
+ * so the result is neither built nor serialized.
+ * <pre>
+ * &#64;Get("/employees")
+ * &#64;ETag(version = "employeesVersion")
+ * public List&lt;Employee&gt; getAllEmployees() { ... }
+ *
+ * public long employeesVersion() { return repository.getVersion(); }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ETag {
+    /**
+     * Name of a controller method returning the current version of the resource (null: hash the body)
+     * It takes no parameters, or the same parameters as the handler
+     */
+    String version() default "";
+}
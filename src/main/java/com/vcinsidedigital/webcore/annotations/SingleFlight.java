@@ -0,0 +1,24 @@
+package com.vcinsidedigital.webcore.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Coalesce concurrent identical GET requests to this handler into one call
+ *
+ * The first request runs the handler; requests with the same key that arrive while it is running
+ * wait for it and get a copy of its encoded response. Middlewares still run for every request.
+ * <pre>
+ * &#64;Get("/reports/{id}")
+ * &#64;SingleFlight(key = {"header:Accept-Language"})
+ * public Report getReport(@Path("id") Long id) { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SingleFlight {
+    /**
+     * Request parts in the key besides method and path: "query:name" or "header:Name"
+     * When empty, every query parameter is part of the key
+     */
+    String[] key() default {};
+}
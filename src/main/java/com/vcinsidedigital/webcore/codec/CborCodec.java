@@ -0,0 +1,135 @@
+package com.vcinsidedigital.webcore.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Compact binary Codec: CBOR (RFC 8949, "application/cbor") through Gson's TypeAdapters
+ *
+ * Uses the same adapters, field names and null handling as GsonCodec, so one controller
+ * method answers JSON or CBOR depending on the request's Accept header.
+ */
+public class CborCodec implements Codec {
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    private final Gson gson;
+    private final Gson readGson;
+    private final TypeAdapter<JsonElement> elementAdapter;
+
+    public CborCodec() {
+        this(new Gson());
+    }
+
+    /**
+     * Use a configured Gson, e.g. the one given to GsonCodec
+     */
+    public CborCodec(Gson gson) {
+        this.gson = gson;
+        this.readGson = gson.newBuilder().registerTypeAdapterFactory(new MapReadFactory()).create();
+        this.elementAdapter = gson.getAdapter(JsonElement.class);
+    }
+
+    public Gson getGson() {
+        return gson;
+    }
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public <T> TypeCodec<T> forType(Type type) {
+        return new CborTypeCodec<>(TypeToken.get(type));
+    }
+
+    private final class CborTypeCodec<T> implements TypeCodec<T> {
+        private final Class<?> rawType;
+        private final TypeAdapter<T> adapter;
+        private final TypeAdapter<T> readAdapter;
+
+        @SuppressWarnings("unchecked")
+        CborTypeCodec(TypeToken<?> token) {
+            this.rawType = token.getRawType();
+            this.adapter = (TypeAdapter<T>) gson.getAdapter(token);
+            this.readAdapter = (TypeAdapter<T>) readGson.getAdapter(token);
+        }
+
+        @Override
+        public T decode(InputStream in) throws IOException {
+            CborReader reader = new CborReader(in);
+            try {
+                try {
+                    reader.peek();
+                } catch (EOFException e) {
+                    return null; // Empty body, as with GsonCodec
+                }
+                T value = readAdapter.read(reader);
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonSyntaxException("CBOR document was not fully consumed.");
+                }
+                return value;
+            } catch (MalformedJsonException | IllegalStateException e) {
+                throw new JsonSyntaxException(e);
+            } finally {
+                reader.close();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void encode(T value, OutputStream out) throws IOException {
+            CborWriter writer = new CborWriter(out, gson.serializeNulls(), elementAdapter);
+            TypeAdapter<T> writeAdapter = adapter;
+            if (value != null && value.getClass() != rawType && !rawType.isInterface() && !rawType.isPrimitive()) {
+                // Same rule as GsonCodec: a subclass of a declared class writes its own fields
+                writeAdapter = (TypeAdapter<T>) gson.getAdapter(value.getClass());
+            }
+            writeAdapter.write(writer, value);
+            writer.flush();
+        }
+    }
+
+    /**
+     * Gson's Map adapter reads keys through internals of its own JsonReader class,
+     * so maps are read from CBOR as a JsonElement tree and bound from there
+     */
+    private final class MapReadFactory implements TypeAdapterFactory {
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (!Map.class.isAssignableFrom(type.getRawType())) {
+                return null;
+            }
+            TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+            return new TypeAdapter<T>() {
+                @Override
+                public void write(JsonWriter out, T value) throws IOException {
+                    delegate.write(out, value);
+                }
+
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    if (in instanceof CborReader) {
+                        return delegate.fromJsonTree(elementAdapter.read(in));
+                    }
+                    return delegate.read(in);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,524 @@
+package com.vcinsidedigital.webcore.codec;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * JsonReader that reads CBOR (RFC 8949) instead of JSON text, so any Gson TypeAdapter can read it
+ *
+ * Definite and indefinite lengths are both accepted. Byte strings read as Base64 text,
+ * bignums (tags 2 and 3) as numbers, and other tags are ignored. Map keys are read as names.
+ */
+final class CborReader extends JsonReader {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DEPTH = 512;
+    private static final int BREAK = 0xff;
+    private static final int INDEFINITE = -1;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Open containers: map or array, items left (INDEFINITE until a break), and for maps whether a key is next
+    private final boolean[] map = new boolean[MAX_DEPTH];
+    private final long[] remaining = new long[MAX_DEPTH];
+    private final boolean[] nameNext = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean documentRead;
+
+    // Initial byte of the next item, read by peek() but not consumed (-1 when none)
+    private int header = -1;
+    // Tag 2 or 3 in front of the next item (0 when none)
+    private long bignumTag;
+
+    CborReader(InputStream in) {
+        super(Reader.nullReader());
+        this.in = in;
+    }
+
+    // ===== Structure =====
+
+    @Override
+    public JsonToken peek() throws IOException {
+        if (depth == 0) {
+            if (documentRead) {
+                if (header >= 0 || read() >= 0) {
+                    throw new JsonSyntaxException("CBOR document was not fully consumed.");
+                }
+                return JsonToken.END_DOCUMENT;
+            }
+        } else if (remaining[depth - 1] == 0) {
+            return map[depth - 1] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        }
+
+        int initial = peekHeader();
+        if (initial == BREAK) {
+            if (depth == 0 || remaining[depth - 1] != INDEFINITE || (map[depth - 1] && !nameNext[depth - 1])) {
+                throw new MalformedJsonException("Unexpected CBOR break");
+            }
+            return map[depth - 1] ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        }
+        if (depth > 0 && map[depth - 1] && nameNext[depth - 1]) {
+            return JsonToken.NAME;
+        }
+        if (bignumTag != 0) {
+            return JsonToken.NUMBER;
+        }
+
+        switch (initial >>> 5) {
+            case 0:
+            case 1:
+                return JsonToken.NUMBER;
+            case 2:
+            case 3:
+                return JsonToken.STRING;
+            case 4:
+                return JsonToken.BEGIN_ARRAY;
+            case 5:
+                return JsonToken.BEGIN_OBJECT;
+            default:
+                switch (initial & 0x1f) {
+                    case 20:
+                    case 21:
+                        return JsonToken.BOOLEAN;
+                    case 22:
+                    case 23:
+                        return JsonToken.NULL;
+                    case 25:
+                    case 26:
+                    case 27:
+                        return JsonToken.NUMBER;
+                    default:
+                        throw new MalformedJsonException("Unsupported CBOR simple value: " + (initial & 0x1f));
+                }
+        }
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(false, takeHeader());
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+        pop();
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(true, takeHeader());
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+        pop();
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        expect(JsonToken.NAME);
+        String name;
+        if (bignumTag != 0 || (header >>> 5) <= 1) {
+            name = takeNumber().toString(); // JSON names are strings
+        } else if ((header >>> 5) <= 3) {
+            name = takeString();
+        } else {
+            throw new MalformedJsonException("Unsupported CBOR map key of major type " + (header >>> 5));
+        }
+        nameNext[depth - 1] = false;
+        return name;
+    }
+
+    private void push(boolean isMap, int initial) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new MalformedJsonException("CBOR nesting deeper than " + MAX_DEPTH);
+        }
+        int info = initial & 0x1f;
+        long count = INDEFINITE;
+        if (info != 31) {
+            count = readArgument(info);
+            if (count < 0) {
+                throw new MalformedJsonException("CBOR container too large");
+            }
+        }
+        map[depth] = isMap;
+        remaining[depth] = count;
+        nameNext[depth] = isMap;
+        depth++;
+    }
+
+    private void pop() throws IOException {
+        if (remaining[depth - 1] == INDEFINITE) {
+            takeHeader(); // The break
+        }
+        depth--;
+        valueRead();
+    }
+
+    private void valueRead() {
+        if (depth == 0) {
+            documentRead = true;
+            return;
+        }
+        int top = depth - 1;
+        if (map[top]) {
+            nameNext[top] = true;
+        }
+        if (remaining[top] > 0) {
+            remaining[top]--;
+        }
+    }
+
+    // ===== Values =====
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        String value;
+        if (token == JsonToken.STRING) {
+            value = takeString();
+        } else if (token == JsonToken.NUMBER) {
+            value = takeNumber().toString();
+        } else {
+            throw unexpected("a string", token);
+        }
+        valueRead();
+        return value;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        expect(JsonToken.BOOLEAN);
+        boolean value = takeHeader() == 0xf5;
+        valueRead();
+        return value;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        expect(JsonToken.NULL);
+        takeHeader();
+        valueRead();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JsonToken token = peek();
+        double value;
+        if (token == JsonToken.NUMBER) {
+            value = takeNumber().doubleValue();
+        } else if (token == JsonToken.STRING) {
+            value = Double.parseDouble(takeString());
+        } else {
+            throw unexpected("a double", token);
+        }
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new MalformedJsonException("JSON forbids NaN and infinities: " + value);
+        }
+        valueRead();
+        return value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JsonToken token = peek();
+        long value;
+        if (token == JsonToken.NUMBER) {
+            Number number = takeNumber();
+            if (number instanceof Long) {
+                value = number.longValue();
+            } else if (number instanceof BigInteger) {
+                if (((BigInteger) number).bitLength() > 63) {
+                    throw new NumberFormatException("Expected a long but was " + number);
+                }
+                value = number.longValue();
+            } else {
+                double asDouble = number.doubleValue();
+                value = (long) asDouble;
+                if (value != asDouble) {
+                    throw new NumberFormatException("Expected a long but was " + number);
+                }
+            }
+        } else if (token == JsonToken.STRING) {
+            value = Long.parseLong(takeString());
+        } else {
+            throw unexpected("a long", token);
+        }
+        valueRead();
+        return value;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw new NumberFormatException("Expected an int but was " + value);
+        }
+        return (int) value;
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        JsonToken token = peek();
+        switch (token) {
+            case BEGIN_ARRAY:
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                break;
+            case BEGIN_OBJECT:
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                break;
+            case NAME:
+                nextName();
+                break;
+            case STRING:
+            case NUMBER:
+                nextString();
+                break;
+            case BOOLEAN:
+                nextBoolean();
+                break;
+            case NULL:
+                nextNull();
+                break;
+            default:
+                throw unexpected("a value", token);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CborReader";
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw unexpected(expected.toString(), token);
+        }
+    }
+
+    private static IllegalStateException unexpected(String expected, JsonToken token) {
+        return new IllegalStateException("Expected " + expected + " but was " + token + " in CBOR input");
+    }
+
+    // ===== Items =====
+
+    /**
+     * Read the next initial byte, stepping over tags (bignum tags are kept for takeNumber)
+     */
+    private int peekHeader() throws IOException {
+        if (header >= 0) {
+            return header;
+        }
+        int initial = read();
+        if (initial < 0) {
+            if (depth == 0 && bignumTag == 0) {
+                throw new EOFException("End of input"); // Empty document, as JsonReader reports it
+            }
+            throw new MalformedJsonException("Truncated CBOR input");
+        }
+        while (initial >>> 5 == 6) {
+            long tag = readArgument(initial & 0x1f);
+            initial = require();
+            if ((tag == 2 || tag == 3) && initial >>> 5 == 2) {
+                bignumTag = tag;
+            }
+        }
+        header = initial;
+        return initial;
+    }
+
+    private int takeHeader() throws IOException {
+        int initial = peekHeader();
+        header = -1;
+        return initial;
+    }
+
+    private String takeString() throws IOException {
+        int initial = takeHeader();
+        int major = initial >>> 5;
+        byte[] bytes = readString(major, initial & 0x1f);
+        return major == 3 ? new String(bytes, StandardCharsets.UTF_8) : Base64.getEncoder().encodeToString(bytes);
+    }
+
+    private Number takeNumber() throws IOException {
+        int initial = takeHeader();
+        int info = initial & 0x1f;
+        if (bignumTag != 0) {
+            // Big-endian magnitude in a byte string
+            BigInteger magnitude = new BigInteger(1, readString(2, info));
+            boolean negative = bignumTag == 3;
+            bignumTag = 0;
+            return negative ? BigInteger.ONE.negate().subtract(magnitude) : magnitude;
+        }
+
+        switch (initial >>> 5) {
+            case 0: {
+                long argument = readArgument(info);
+                return argument >= 0 ? (Number) argument : new BigInteger(Long.toUnsignedString(argument));
+            }
+            case 1: {
+                long argument = readArgument(info);
+                if (argument >= 0) {
+                    return -1 - argument;
+                }
+                // -1 - argument does not fit a long
+                return BigInteger.ONE.negate().subtract(new BigInteger(Long.toUnsignedString(argument)));
+            }
+            default:
+                if (info == 25) return (double) halfToFloat((int) readBits(2));
+                if (info == 26) return (double) Float.intBitsToFloat((int) readBits(4));
+                return Double.longBitsToDouble(readBits(8));
+        }
+    }
+
+    /**
+     * Argument of a header: the value itself below 24, else the following 1/2/4/8 bytes
+     */
+    private long readArgument(int info) throws IOException {
+        if (info < 24) return info;
+        if (info == 24) return readBits(1);
+        if (info == 25) return readBits(2);
+        if (info == 26) return readBits(4);
+        if (info == 27) return readBits(8);
+        throw new MalformedJsonException("Unsupported CBOR length encoding: " + info);
+    }
+
+    private byte[] readString(int major, int info) throws IOException {
+        if (info != 31) {
+            long length = readArgument(info);
+            if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                throw new MalformedJsonException("CBOR string too long");
+            }
+            return readBytes((int) length);
+        }
+
+        // Indefinite length: concatenated definite-length chunks of the same major type
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        int initial;
+        while ((initial = require()) != BREAK) {
+            if (initial >>> 5 != major || (initial & 0x1f) == 31) {
+                throw new MalformedJsonException("Malformed CBOR string chunk");
+            }
+            chunks.writeBytes(readString(major, initial & 0x1f));
+        }
+        return chunks.toByteArray();
+    }
+
+    private byte[] readBytes(int length) throws IOException {
+        if (length <= BUFFER_SIZE * 8) {
+            byte[] bytes = new byte[length];
+            readFully(bytes, length);
+            return bytes;
+        }
+        // Untrusted length: grow with the data actually received instead of allocating up front
+        ByteArrayOutputStream out = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] chunk = new byte[BUFFER_SIZE];
+        int left = length;
+        while (left > 0) {
+            int count = Math.min(left, chunk.length);
+            readFully(chunk, count);
+            out.write(chunk, 0, count);
+            left -= count;
+        }
+        return out.toByteArray();
+    }
+
+    private static float halfToFloat(int bits) {
+        int exponent = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+        float value;
+        if (exponent == 0) {
+            value = mantissa * 0x1p-24f;
+        } else if (exponent == 31) {
+            value = mantissa == 0 ? Float.POSITIVE_INFINITY : Float.NaN;
+        } else {
+            value = (1 + mantissa / 1024f) * (float) Math.pow(2, exponent - 15);
+        }
+        return (bits & 0x8000) != 0 ? -value : value;
+    }
+
+    // ===== Input =====
+
+    private void readFully(byte[] target, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (position == limit && !fill()) {
+                throw new MalformedJsonException("Truncated CBOR input");
+            }
+            int count = Math.min(length - offset, limit - position);
+            System.arraycopy(buffer, position, target, offset, count);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private long readBits(int byteCount) throws IOException {
+        long value = 0;
+        for (int i = 0; i < byteCount; i++) {
+            value = (value << 8) | require();
+        }
+        return value;
+    }
+
+    private int require() throws IOException {
+        int b = read();
+        if (b < 0) {
+            throw new MalformedJsonException("Truncated CBOR input");
+        }
+        return b;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
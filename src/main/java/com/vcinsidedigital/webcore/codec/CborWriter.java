@@ -0,0 +1,316 @@
+package com.vcinsidedigital.webcore.codec;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JsonWriter that emits CBOR (RFC 8949) instead of JSON text, so any Gson TypeAdapter can write it
+ *
+ * Objects and arrays use indefinite-length encoding, which needs no element count up front and
+ * lets values stream out as the adapter produces them. Integers take the smallest header that
+ * fits; doubles are written as float32 when that loses nothing.
+ */
+final class CborWriter extends JsonWriter {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final TypeAdapter<JsonElement> elementAdapter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private String deferredName;
+
+    CborWriter(OutputStream out, boolean serializeNulls, TypeAdapter<JsonElement> elementAdapter) {
+        super(Writer.nullWriter());
+        this.out = out;
+        this.elementAdapter = elementAdapter;
+        setSerializeNulls(serializeNulls);
+    }
+
+    // ===== Structure =====
+
+    @Override
+    public CborWriter beginArray() throws IOException {
+        writeDeferredName();
+        writeByte(0x9f);
+        return this;
+    }
+
+    @Override
+    public CborWriter endArray() throws IOException {
+        writeByte(0xff);
+        return this;
+    }
+
+    @Override
+    public CborWriter beginObject() throws IOException {
+        writeDeferredName();
+        writeByte(0xbf);
+        return this;
+    }
+
+    @Override
+    public CborWriter endObject() throws IOException {
+        deferredName = null;
+        writeByte(0xff);
+        return this;
+    }
+
+    @Override
+    public CborWriter name(String name) {
+        if (name == null) {
+            throw new NullPointerException("name == null");
+        }
+        if (deferredName != null) {
+            throw new IllegalStateException("Already wrote a name, expecting a value.");
+        }
+        deferredName = name;
+        return this;
+    }
+
+    private void writeDeferredName() throws IOException {
+        if (deferredName != null) {
+            writeText(deferredName);
+            deferredName = null;
+        }
+    }
+
+    // ===== Values =====
+
+    @Override
+    public CborWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeText(value);
+        return this;
+    }
+
+    @Override
+    public CborWriter jsonValue(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        // Raw JSON from a JsonAdapter: re-encode it as CBOR
+        elementAdapter.write(this, JsonParser.parseString(value));
+        return this;
+    }
+
+    @Override
+    public CborWriter nullValue() throws IOException {
+        if (deferredName != null) {
+            if (!getSerializeNulls()) {
+                deferredName = null; // Drop the whole member, like JsonWriter
+                return this;
+            }
+            writeDeferredName();
+        }
+        writeByte(0xf6);
+        return this;
+    }
+
+    @Override
+    public CborWriter value(boolean value) throws IOException {
+        writeDeferredName();
+        writeByte(value ? 0xf5 : 0xf4);
+        return this;
+    }
+
+    @Override
+    public CborWriter value(Boolean value) throws IOException {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    // Not @Override: JsonWriter.value(float) only exists from Gson 2.9.1, where Gson's float adapter calls it.
+    // Returning JsonWriter keeps the descriptor, so it still overrides on those versions
+    public JsonWriter value(float value) throws IOException {
+        return value((double) value);
+    }
+
+    @Override
+    public CborWriter value(double value) throws IOException {
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        writeDeferredName();
+        writeDouble(value);
+        return this;
+    }
+
+    @Override
+    public CborWriter value(long value) throws IOException {
+        writeDeferredName();
+        writeInteger(value);
+        return this;
+    }
+
+    @Override
+    public CborWriter value(Number value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicInteger || value instanceof AtomicLong) {
+            return value(value.longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return value(value.doubleValue());
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            return value(value.longValue());
+        }
+
+        // BigDecimal, LazilyParsedNumber and others: integers exactly, fractions as double
+        String text = value.toString();
+        try {
+            BigDecimal decimal = new BigDecimal(text);
+            if (decimal.signum() == 0 || decimal.stripTrailingZeros().scale() <= 0) {
+                BigInteger integer = decimal.toBigIntegerExact();
+                if (integer.bitLength() < 64) {
+                    return value(integer.longValue());
+                }
+            } else if (!(value instanceof BigDecimal)) {
+                return value(value.doubleValue());
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            return value(value.doubleValue()); // NaN or Infinity
+        }
+        // Beyond long or double precision: text keeps the exact value, and Gson reads numbers from text
+        return value(text);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    // ===== Encoding =====
+
+    private void writeInteger(long value) throws IOException {
+        if (value >= 0) {
+            writeHeader(0, value);
+        } else {
+            writeHeader(1, -1 - value);
+        }
+    }
+
+    private void writeDouble(double value) throws IOException {
+        float asFloat = (float) value;
+        if (asFloat == value || Double.isNaN(value)) {
+            ensureCapacity(5);
+            buffer[position++] = (byte) 0xfa;
+            writeBits(Float.floatToIntBits(asFloat), 4);
+        } else {
+            ensureCapacity(9);
+            buffer[position++] = (byte) 0xfb;
+            writeBits(Double.doubleToLongBits(value), 8);
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+
+        if (!ascii) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeHeader(3, bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+            return;
+        }
+
+        // ASCII: one byte per char, no intermediate array
+        writeHeader(3, length);
+        int offset = 0;
+        while (offset < length) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int count = Math.min(length - offset, buffer.length - position);
+            for (int i = 0; i < count; i++) {
+                buffer[position++] = (byte) value.charAt(offset + i);
+            }
+            offset += count;
+        }
+    }
+
+    /**
+     * Major type and argument, in the shortest form (RFC 8949 section 3)
+     */
+    private void writeHeader(int majorType, long argument) throws IOException {
+        int major = majorType << 5;
+        ensureCapacity(9);
+        if (argument < 24) {
+            buffer[position++] = (byte) (major | argument);
+        } else if (argument <= 0xffL) {
+            buffer[position++] = (byte) (major | 24);
+            writeBits(argument, 1);
+        } else if (argument <= 0xffffL) {
+            buffer[position++] = (byte) (major | 25);
+            writeBits(argument, 2);
+        } else if (argument <= 0xffffffffL) {
+            buffer[position++] = (byte) (major | 26);
+            writeBits(argument, 4);
+        } else {
+            buffer[position++] = (byte) (major | 27);
+            writeBits(argument, 8);
+        }
+    }
+
+    private void writeBits(long bits, int byteCount) {
+        for (int shift = (byteCount - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (bits >>> shift);
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            drain();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void ensureCapacity(int count) throws IOException {
+        if (buffer.length - position < count) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,27 @@
+package com.vcinsidedigital.webcore.codec;
+
+import java.lang.reflect.Type;
+
+/**
+ * Serializes controller results and @Body parameters
+ *
+ * The Router asks for a TypeCodec once per route, at registration time, so lookups such as
+ * Gson's TypeAdapter resolution are not repeated on every request.
+ * <pre>
+ * WebServerApplication.getRouter().setCodec(new GsonCodec(new GsonBuilder()
+ *         .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+ *         .create()));
+ * </pre>
+ */
+public interface Codec {
+
+    /**
+     * Content-Type of encoded bodies, e.g. "application/json"
+     */
+    String getMediaType();
+
+    /**
+     * Reader/writer for one declared type (may be generic, e.g. List&lt;Employee&gt;)
+     */
+    <T> TypeCodec<T> forType(Type type);
+}
@@ -0,0 +1,104 @@
+package com.vcinsidedigital.webcore.codec;
+
+import java.util.List;
+
+/**
+ * Picks a Codec from the request's Accept and Content-Type headers
+ *
+ * The first codec is the default: requests without a matching header (browsers send
+ * "text/html,...,*&#47;*") keep getting it.
+ */
+public final class CodecNegotiation {
+
+    private CodecNegotiation() {
+    }
+
+    /**
+     * Codec for a request body
+     * @return index of the codec with the body's media type, or 0 if none matches
+     */
+    public static int forContentType(List<Codec> codecs, String contentType) {
+        if (contentType == null || codecs.size() == 1) {
+            return 0;
+        }
+        String mediaType = mediaType(contentType);
+        for (int i = 0; i < codecs.size(); i++) {
+            if (codecs.get(i).getMediaType().equalsIgnoreCase(mediaType)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Codec for a response: highest q-value, then most specific range, then codec order
+     * @return index of the preferred codec, or 0 if the header accepts none of them
+     */
+    public static int forAccept(List<Codec> codecs, String accept) {
+        if (accept == null || codecs.size() == 1) {
+            return 0;
+        }
+
+        int best = 0;
+        double bestQuality = 0;
+        for (int i = 0; i < codecs.size(); i++) {
+            double quality = quality(accept, codecs.get(i).getMediaType());
+            if (quality > bestQuality) {
+                best = i;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quality the Accept header gives to a media type: the most specific matching range wins
+     */
+    private static double quality(String accept, String mediaType) {
+        int slash = mediaType.indexOf('/');
+        String type = mediaType.substring(0, slash);
+
+        double quality = 0;
+        int specificity = -1;
+        for (String part : accept.split(",")) {
+            String[] params = part.split(";");
+            String range = params[0].trim();
+
+            int rangeSpecificity;
+            if (range.equalsIgnoreCase(mediaType)) {
+                rangeSpecificity = 2;
+            } else if (range.equalsIgnoreCase(type + "/*")) {
+                rangeSpecificity = 1;
+            } else if (range.equals("*/*")) {
+                rangeSpecificity = 0;
+            } else {
+                continue;
+            }
+
+            if (rangeSpecificity > specificity) {
+                specificity = rangeSpecificity;
+                quality = parseQuality(params);
+            }
+        }
+        return quality;
+    }
+
+    private static double parseQuality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static String mediaType(String contentType) {
+        int semicolon = contentType.indexOf(';');
+        return (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim();
+    }
+}
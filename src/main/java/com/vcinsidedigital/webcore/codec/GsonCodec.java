@@ -0,0 +1,98 @@
+package com.vcinsidedigital.webcore.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Default Codec: JSON through Gson, with the TypeAdapter of each type resolved up front
+ */
+public class GsonCodec implements Codec {
+    private final Gson gson;
+
+    public GsonCodec() {
+        this(new Gson());
+    }
+
+    /**
+     * Use a configured Gson, e.g. one with registered TypeAdapters
+     */
+    public GsonCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    public Gson getGson() {
+        return gson;
+    }
+
+    @Override
+    public String getMediaType() {
+        return "application/json";
+    }
+
+    @Override
+    public <T> TypeCodec<T> forType(Type type) {
+        return new GsonTypeCodec<>(TypeToken.get(type));
+    }
+
+    private final class GsonTypeCodec<T> implements TypeCodec<T> {
+        private final Class<?> rawType;
+        private final TypeAdapter<T> adapter;
+
+        @SuppressWarnings("unchecked")
+        GsonTypeCodec(TypeToken<?> token) {
+            this.rawType = token.getRawType();
+            this.adapter = (TypeAdapter<T>) gson.getAdapter(token);
+        }
+
+        @Override
+        public T decode(InputStream in) throws IOException {
+            JsonReader reader = gson.newJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            try {
+                try {
+                    reader.peek();
+                } catch (EOFException e) {
+                    return null; // Empty body, as gson.fromJson("") would give
+                }
+                T value = adapter.read(reader);
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonSyntaxException("JSON document was not fully consumed.");
+                }
+                return value;
+            } catch (MalformedJsonException | IllegalStateException e) {
+                throw new JsonSyntaxException(e);
+            } finally {
+                reader.close();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void encode(T value, OutputStream out) throws IOException {
+            JsonWriter writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            TypeAdapter<T> writeAdapter = adapter;
+            if (value != null && value.getClass() != rawType && !rawType.isInterface() && !rawType.isPrimitive()) {
+                // Subclass of a declared class: serialize its own fields, like gson.toJson(value)
+                // (List, Map and other interface types keep the route's adapter)
+                writeAdapter = (TypeAdapter<T>) gson.getAdapter(value.getClass());
+            }
+            writeAdapter.write(writer, value);
+            writer.flush();
+        }
+    }
+}
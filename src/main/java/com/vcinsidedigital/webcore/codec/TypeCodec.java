@@ -0,0 +1,34 @@
+package com.vcinsidedigital.webcore.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Encodes and decodes values of one type, resolved once by Codec.forType()
+ */
+public interface TypeCodec<T> {
+
+    /**
+     * Read a value from a request body
+     * @return the value, or null for an empty body
+     */
+    T decode(InputStream in) throws IOException;
+
+    /**
+     * Write a value; the stream is flushed but not closed
+     */
+    void encode(T value, OutputStream out) throws IOException;
+
+    default byte[] encode(T value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            encode(value, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by ByteArrayOutputStream
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,132 @@
+package com.vcinsidedigital.webcore.core;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads the class-level runtime annotations straight from a .class file, without loading the class
+ *
+ * Lets the package scanner skip classes that carry no component annotation: no class loading,
+ * no static initializers, no Metaspace. Field and method bodies are skipped, not parsed.
+ */
+final class ClassFileAnnotations {
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private ClassFileAnnotations() {}
+
+    /**
+     * @return descriptors of the class's runtime annotations, e.g. "Lcom/example/MyAnnotation;"
+     * @throws IOException if the stream is not a readable class file
+     */
+    static Set<String> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        data.readUnsignedShort(); // minor_version
+        data.readUnsignedShort(); // major_version
+
+        // Constant pool: keep the UTF-8 entries, annotation types and attribute names are among them
+        int count = data.readUnsignedShort();
+        String[] utf8 = new String[count];
+        boolean annotated = false;
+        for (int i = 1; i < count; i++) {
+            int tag = data.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = data.readUTF();
+                    annotated |= "RuntimeVisibleAnnotations".equals(utf8[i]);
+                    break;
+                case 7: case 8: case 16: case 19: case 20: // Class, String, MethodType, Module, Package
+                    data.skipNBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    data.skipNBytes(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    data.skipNBytes(4);
+                    break;
+                case 5: case 6: // Long and Double take two entries
+                    data.skipNBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        if (!annotated) {
+            return Collections.emptySet(); // Nothing in this class has runtime annotations
+        }
+
+        data.skipNBytes(6); // access_flags, this_class, super_class
+        data.skipNBytes(2L * data.readUnsignedShort()); // interfaces
+        skipMembers(data); // fields
+        skipMembers(data); // methods
+
+        int attributes = data.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[data.readUnsignedShort()];
+            int length = data.readInt();
+            if (!"RuntimeVisibleAnnotations".equals(name)) {
+                data.skipNBytes(length);
+                continue;
+            }
+            int annotationCount = data.readUnsignedShort();
+            Set<String> annotations = new HashSet<>(annotationCount * 2);
+            for (int j = 0; j < annotationCount; j++) {
+                annotations.add(utf8[data.readUnsignedShort()]);
+                skipElementValuePairs(data);
+            }
+            return annotations;
+        }
+        return Collections.emptySet();
+    }
+
+    private static void skipMembers(DataInputStream data) throws IOException {
+        int members = data.readUnsignedShort();
+        for (int i = 0; i < members; i++) {
+            data.skipNBytes(6); // access_flags, name_index, descriptor_index
+            int attributes = data.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                data.skipNBytes(2);
+                data.skipNBytes(Integer.toUnsignedLong(data.readInt()));
+            }
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream data) throws IOException {
+        int pairs = data.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            data.skipNBytes(2); // element_name_index
+            skipElementValue(data);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream data) throws IOException {
+        int tag = data.readUnsignedByte();
+        switch (tag) {
+            case 'B': case 'C': case 'D': case 'F': case 'I': case 'J': case 'S': case 'Z': case 's': case 'c':
+                data.skipNBytes(2);
+                break;
+            case 'e': // Enum: type and constant name
+                data.skipNBytes(4);
+                break;
+            case '@': // Nested annotation
+                data.skipNBytes(2);
+                skipElementValuePairs(data);
+                break;
+            case '[':
+                int values = data.readUnsignedShort();
+                for (int i = 0; i < values; i++) {
+                    skipElementValue(data);
+                }
+                break;
+            default:
+                throw new IOException("Unknown element value tag " + tag);
+        }
+    }
+}
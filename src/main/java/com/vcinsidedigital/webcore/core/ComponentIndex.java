@@ -0,0 +1,88 @@
+package com.vcinsidedigital.webcore.core;
+
+import com.vcinsidedigital.webcore.extensibility.ComponentAnnotationHandler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compile-time list of component classes, written by ComponentIndexProcessor
+ *
+ * One file per classpath root: the annotations it covers ("@" lines) and the classes carrying them.
+ */
+public class ComponentIndex {
+    public static final String LOCATION = "META-INF/webcore/components";
+
+    private final Set<String> annotations;
+    private final Collection<String> classNames;
+
+    public ComponentIndex(Collection<String> annotations, Collection<String> classNames) {
+        this.annotations = new LinkedHashSet<>(annotations);
+        this.classNames = classNames;
+    }
+
+    public static ComponentIndex read(InputStream in) throws IOException {
+        Set<String> annotations = new LinkedHashSet<>();
+        List<String> classNames = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("@")) {
+                annotations.add(line.substring(1));
+            } else {
+                classNames.add(line);
+            }
+        }
+        return new ComponentIndex(annotations, classNames);
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write("# Generated by ComponentIndexProcessor\n");
+        for (String annotation : annotations) {
+            writer.write('@' + annotation + '\n');
+        }
+        for (String className : classNames) {
+            writer.write(className + '\n');
+        }
+    }
+
+    /**
+     * True when the classes of every registered component annotation were indexed
+     * A plugin annotation the processor did not know about means the classpath has to be walked
+     */
+    public boolean covers(List<ComponentAnnotationHandler> handlers) {
+        for (ComponentAnnotationHandler handler : handlers) {
+            if (!annotations.contains(handler.getAnnotationType().getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indexed classes in a package or its subpackages
+     */
+    public List<String> getClassNames(String packageName) {
+        String prefix = packageName.isEmpty() ? "" : packageName + '.';
+        List<String> inPackage = new ArrayList<>();
+        for (String className : classNames) {
+            if (className.startsWith(prefix)) {
+                inPackage.add(className);
+            }
+        }
+        return inPackage;
+    }
+
+    public Collection<String> getClassNames() {
+        return classNames;
+    }
+
+    public Set<String> getAnnotations() {
+        return annotations;
+    }
+}
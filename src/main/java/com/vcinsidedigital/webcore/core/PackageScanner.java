@@ -3,18 +3,30 @@ package com.vcinsidedigital.webcore.core;
 import com.vcinsidedigital.webcore.annotations.*;
 import com.vcinsidedigital.webcore.extensibility.AnnotationHandlerRegistry;
 import com.vcinsidedigital.webcore.extensibility.ComponentAnnotationHandler;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 public class PackageScanner {
+    // Class files per fork/join task before it splits
+    private static final int BATCH_SIZE = 64;
 
     // CORREÇÃO: Armazenar o ClassLoader customizado
     private ClassLoader customClassLoader = null;
+    private final List<RootTiming> rootTimings = new ArrayList<>();
+    // Roots read per scanned package, re-filtered by later scans of it or its subpackages
+    private final Map<String, List<RootContent>> contents = new LinkedHashMap<>();
 
     /**
      * Define um ClassLoader customizado para usar durante o scan
@@ -41,29 +53,49 @@ public class PackageScanner {
         return ClassLoader.getSystemClassLoader();
     }
 
+    /**
+     * Scan a package on every classpath root that contains it
+     *
+     * The class files of a package are read once: later scans of the package or of a subpackage
+     * re-filter the cached annotations against the component annotations registered by then.
+     * Roots, directory subtrees and jar entries are read in parallel (fork/join); the result is
+     * merged in classpath order and by class name, so components always register in the same order.
+     */
     public Set<Class<?>> scanPackage(String packageName) {
-        Set<Class<?>> classes = new HashSet<>();
+        Set<Class<?>> classes = new LinkedHashSet<>();
 
         try {
             String path = packageName.replace('.', '/');
             ClassLoader classLoader = getEffectiveClassLoader(); // CORREÇÃO AQUI
-            Enumeration<URL> resources = classLoader.getResources(path);
+            Set<String> annotations = componentAnnotationDescriptors();
 
-            while (resources.hasMoreElements()) {
-                URL resource = resources.nextElement();
-                String protocol = resource.getProtocol();
+            List<RootScan> scans = new ArrayList<>();
+            List<RootContent> cached = cachedContents(packageName);
+            if (cached != null) {
+                for (RootContent content : cached) {
+                    scans.add(new RootScan(content, null, packageName, classLoader, annotations));
+                }
+            } else {
+                Enumeration<URL> resources = classLoader.getResources(path);
+                while (resources.hasMoreElements()) {
+                    scans.add(new RootScan(null, resources.nextElement(), packageName, classLoader, annotations));
+                }
+            }
 
-                if ("file".equals(protocol)) {
-                    // Scanning from directory (development mode)
-                    File directory = new File(URLDecoder.decode(resource.getFile(), "UTF-8"));
-                    if (directory.exists()) {
-                        classes.addAll(findClassesInDirectory(directory, packageName, classLoader));
-                    }
-                } else if ("jar".equals(protocol)) {
-                    // Scanning from JAR file (production mode)
-                    classes.addAll(findClassesInJar(resource, packageName, classLoader));
+            List<RootContent> contents = new ArrayList<>();
+            for (RootScan scan : scans) {
+                scan.fork();
+            }
+            for (RootScan scan : scans) {
+                classes.addAll(scan.join());
+                rootTimings.add(scan.timing);
+                if (scan.content != null) {
+                    contents.add(scan.content);
                 }
             }
+            if (cached == null) {
+                this.contents.put(packageName, contents);
+            }
         } catch (Exception e) {
             System.err.println("Error scanning package: " + packageName);
             e.printStackTrace();
@@ -73,86 +105,462 @@ public class PackageScanner {
     }
 
     /**
-     * Find classes in a directory (used in development)
+     * Time spent on each classpath root by the scans of this scanner, in scan order
      */
-    private Set<Class<?>> findClassesInDirectory(File directory, String packageName, ClassLoader classLoader) {
-        Set<Class<?>> classes = new HashSet<>();
+    public List<RootTiming> getRootTimings() {
+        return Collections.unmodifiableList(rootTimings);
+    }
 
-        if (!directory.exists()) {
-            return classes;
+    /**
+     * Forget the class files read so far, e.g. after the classpath changed
+     */
+    public void clearCache() {
+        contents.clear();
+    }
+
+    /**
+     * Roots already read for this package or one of its parents
+     * @return null when the package has not been scanned yet
+     */
+    private List<RootContent> cachedContents(String packageName) {
+        for (Map.Entry<String, List<RootContent>> cached : contents.entrySet()) {
+            String scanned = cached.getKey();
+            if (packageName.equals(scanned) || scanned.isEmpty() || packageName.startsWith(scanned + '.')) {
+                return cached.getValue();
+            }
         }
+        return null;
+    }
 
-        File[] files = directory.listFiles();
-        if (files == null) {
+    /**
+     * Scan of one classpath root (a directory or a jar): read its class files if needed, then
+     * load the ones carrying a component annotation
+     */
+    @SuppressWarnings("serial") // Fork/join tasks are never serialized
+    private final class RootScan extends RecursiveTask<List<Class<?>>> {
+        private final URL resource;
+        private final String packageName;
+        private final ClassLoader classLoader;
+        private final Set<String> annotations;
+        private RootContent content;
+        private RootTiming timing;
+
+        RootScan(RootContent content, URL resource, String packageName, ClassLoader classLoader, Set<String> annotations) {
+            this.content = content;
+            this.resource = resource;
+            this.packageName = packageName;
+            this.classLoader = classLoader;
+            this.annotations = annotations;
+        }
+
+        @Override
+        protected List<Class<?>> compute() {
+            long start = System.nanoTime();
+            boolean cached = content != null;
+            String root = cached ? content.root : resource.toString();
+            boolean indexed = false;
+            int classFiles = 0;
+            List<Class<?>> classes = new ArrayList<>();
+
+            try {
+                if (content == null) {
+                    content = readRoot(resource, packageName);
+                }
+                if (content != null) {
+                    root = content.root;
+                    List<String> candidates;
+                    if (content.index != null && coversHandlers(content.index)) {
+                        indexed = true;
+                        candidates = content.index.getClassNames(packageName);
+                    } else {
+                        cached &= content.hasClassFiles();
+                        List<ClassEntry> entries = content.classFiles(packageName);
+                        classFiles = entries.size();
+                        candidates = candidates(entries, annotations);
+                    }
+                    classes = new LoadBatch(candidates, 0, candidates.size(), classLoader).invoke();
+                }
+            } catch (IOException e) {
+                System.err.println("Error reading " + root + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+
+            timing = new RootTiming(root, packageName, indexed, cached, classFiles, classes.size(),
+                    System.nanoTime() - start);
             return classes;
         }
+    }
 
-        for (File file : files) {
-            if (file.isDirectory()) {
-                classes.addAll(findClassesInDirectory(file, packageName + "." + file.getName(), classLoader));
-            } else if (file.getName().endsWith(".class")) {
-                String className = packageName + '.' + file.getName().substring(0, file.getName().length() - 6);
-                Class<?> clazz = loadClass(className, classLoader);
-                if (clazz != null && isComponent(clazz)) {
-                    classes.add(clazz);
+    /**
+     * Classes of a classpath root under a scanned package: the root's component index and,
+     * when it has none, the annotations of its class files
+     */
+    private final class RootContent {
+        private final URL resource;
+        private final String root;
+        private final String packageName;
+        private final ComponentIndex index;
+        private List<ClassEntry> classFiles;
+
+        RootContent(URL resource, String root, String packageName, ComponentIndex index) {
+            this.resource = resource;
+            this.root = root;
+            this.packageName = packageName;
+            this.index = index;
+        }
+
+        synchronized boolean hasClassFiles() {
+            return classFiles != null;
+        }
+
+        /**
+         * Class files in a package or its subpackages, sorted by class name
+         * An indexed root is only read when its index does not cover a plugin annotation
+         */
+        synchronized List<ClassEntry> classFiles(String subPackage) throws IOException {
+            if (classFiles == null) {
+                classFiles = readClassFiles(this);
+            }
+            if (subPackage.equals(packageName)) {
+                return classFiles;
+            }
+            String prefix = subPackage + '.';
+            List<ClassEntry> inPackage = new ArrayList<>();
+            for (ClassEntry entry : classFiles) {
+                if (entry.className.startsWith(prefix)) {
+                    inPackage.add(entry);
                 }
             }
+            return inPackage;
         }
+    }
 
-        return classes;
+    /**
+     * Class file read from the classpath: its name and class-level runtime annotations
+     */
+    private static final class ClassEntry {
+        private final String className;
+        private final Set<String> annotations; // null: unreadable, load the class to find out
+
+        ClassEntry(String className, Set<String> annotations) {
+            this.className = className;
+            this.annotations = annotations;
+        }
     }
 
     /**
-     * Find classes in a JAR file (used in production)
+     * Root of a package resource, with its component index; class files without an index are read now
+     * @return null for resources that are neither directories nor jars
      */
-    private Set<Class<?>> findClassesInJar(URL resource, String packageName, ClassLoader classLoader) {
-        Set<Class<?>> classes = new HashSet<>();
+    private RootContent readRoot(URL resource, String packageName) throws IOException {
+        String protocol = resource.getProtocol();
+        RootContent content;
+
+        if ("file".equals(protocol)) {
+            // Scanning from directory (development mode)
+            File directory = new File(URLDecoder.decode(resource.getFile(), "UTF-8"));
+            File rootDirectory = rootOf(directory, packageName.replace('.', '/'));
+            content = new RootContent(resource, String.valueOf(rootDirectory), packageName, readIndex(rootDirectory));
+        } else if ("jar".equals(protocol)) {
+            // Scanning from JAR file (production mode)
+            String jarPath = jarPath(resource);
+            try (JarFile jarFile = new JarFile(jarPath)) {
+                content = new RootContent(resource, jarPath, packageName, readIndex(jarFile));
+            }
+        } else {
+            return null;
+        }
 
-        try {
-            // Parse JAR file path from URL
-            String jarPath = resource.getPath();
+        if (content.index == null) {
+            content.classFiles(packageName);
+        }
+        return content;
+    }
 
-            // Handle jar:file:/path/to/file.jar!/package/path format
-            if (jarPath.startsWith("file:")) {
-                jarPath = jarPath.substring(5);
+    private List<ClassEntry> readClassFiles(RootContent content) throws IOException {
+        List<ClassEntry> entries;
+        if ("jar".equals(content.resource.getProtocol())) {
+            try (JarFile jarFile = new JarFile(content.root)) {
+                entries = readJar(jarFile, content.packageName);
             }
+        } else {
+            File directory = new File(URLDecoder.decode(content.resource.getFile(), "UTF-8"));
+            entries = directory.exists() ? new DirectoryScan(directory, content.packageName).invoke() : new ArrayList<>();
+        }
+        entries.sort(Comparator.comparing(entry -> entry.className));
+        return entries;
+    }
 
-            int separatorIndex = jarPath.indexOf("!");
-            if (separatorIndex != -1) {
-                jarPath = jarPath.substring(0, separatorIndex);
+    /**
+     * Classes worth loading: annotated with a component annotation, or unknown
+     */
+    private static List<String> candidates(List<ClassEntry> entries, Set<String> annotations) {
+        List<String> candidates = new ArrayList<>();
+        for (ClassEntry entry : entries) {
+            if (annotations == null || entry.annotations == null || !Collections.disjoint(entry.annotations, annotations)) {
+                candidates.add(entry.className);
             }
+        }
+        return candidates;
+    }
+
+    /**
+     * Read the class files of a directory (used in development): each subdirectory is its own task
+     */
+    @SuppressWarnings("serial")
+    private final class DirectoryScan extends RecursiveTask<List<ClassEntry>> {
+        private final File directory;
+        private final String packageName;
+
+        DirectoryScan(File directory, String packageName) {
+            this.directory = directory;
+            this.packageName = packageName;
+        }
 
-            // Decode URL encoding
-            jarPath = URLDecoder.decode(jarPath, "UTF-8");
+        @Override
+        protected List<ClassEntry> compute() {
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return new ArrayList<>();
+            }
 
-            try (JarFile jarFile = new JarFile(jarPath)) {
-                String packagePath = packageName.replace('.', '/');
-                Enumeration<JarEntry> entries = jarFile.entries();
-
-                while (entries.hasMoreElements()) {
-                    JarEntry entry = entries.nextElement();
-                    String entryName = entry.getName();
-
-                    // Check if entry is in our package and is a class file
-                    if (entryName.startsWith(packagePath) && entryName.endsWith(".class")) {
-                        // Convert path to class name
-                        String className = entryName
-                                .substring(0, entryName.length() - 6) // Remove .class
-                                .replace('/', '.');
-
-                        Class<?> clazz = loadClass(className, classLoader);
-                        if (clazz != null && isComponent(clazz)) {
-                            classes.add(clazz);
-                        }
-                    }
+            List<RecursiveTask<List<ClassEntry>>> tasks = new ArrayList<>();
+            List<ClassFile> sources = new ArrayList<>();
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    tasks.add(new DirectoryScan(file, packageName + "." + file.getName()));
+                } else if (file.getName().endsWith(".class")) {
+                    String className = packageName + '.' + file.getName().substring(0, file.getName().length() - 6);
+                    sources.add(new ClassFile(className, file, null, null));
                 }
             }
+            if (!sources.isEmpty()) {
+                tasks.add(new ReadBatch(sources, 0, sources.size()));
+            }
+
+            return merge(invokeAll(tasks));
+        }
+    }
+
+    /**
+     * Read the class files of a JAR file (used in production) in parallel batches
+     */
+    private List<ClassEntry> readJar(JarFile jarFile, String packageName) {
+        String packagePath = packageName.replace('.', '/');
+        List<ClassFile> sources = new ArrayList<>();
+        Enumeration<JarEntry> entries = jarFile.entries();
+
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String entryName = entry.getName();
+
+            // Check if entry is in our package and is a class file
+            if (entryName.startsWith(packagePath) && entryName.endsWith(".class")) {
+                // Convert path to class name
+                String className = entryName
+                        .substring(0, entryName.length() - 6) // Remove .class
+                        .replace('/', '.');
+                sources.add(new ClassFile(className, null, jarFile, entry));
+            }
+        }
+
+        return new ReadBatch(sources, 0, sources.size()).invoke();
+    }
+
+    /**
+     * Read the annotations of a range of class files, splitting it while it is larger than BATCH_SIZE
+     */
+    @SuppressWarnings("serial")
+    private static final class ReadBatch extends RecursiveTask<List<ClassEntry>> {
+        private final List<ClassFile> sources;
+        private final int from;
+        private final int to;
+
+        ReadBatch(List<ClassFile> sources, int from, int to) {
+            this.sources = sources;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<ClassEntry> compute() {
+            if (to - from > BATCH_SIZE) {
+                int middle = (from + to) >>> 1;
+                return merge(invokeAll(List.of(new ReadBatch(sources, from, middle), new ReadBatch(sources, middle, to))));
+            }
+
+            List<ClassEntry> entries = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ClassFile source = sources.get(i);
+                entries.add(new ClassEntry(source.className, readAnnotations(source)));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * Load and check a range of candidate classes, splitting it while it is larger than BATCH_SIZE
+     */
+    @SuppressWarnings("serial")
+    private final class LoadBatch extends RecursiveTask<List<Class<?>>> {
+        private final List<String> classNames;
+        private final int from;
+        private final int to;
+        private final ClassLoader classLoader;
+
+        LoadBatch(List<String> classNames, int from, int to, ClassLoader classLoader) {
+            this.classNames = classNames;
+            this.from = from;
+            this.to = to;
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected List<Class<?>> compute() {
+            if (to - from > BATCH_SIZE) {
+                int middle = (from + to) >>> 1;
+                return merge(invokeAll(List.of(
+                        new LoadBatch(classNames, from, middle, classLoader),
+                        new LoadBatch(classNames, middle, to, classLoader))));
+            }
+
+            List<Class<?>> classes = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                Class<?> clazz = loadClass(classNames.get(i), classLoader);
+                if (clazz != null && isComponent(clazz)) {
+                    classes.add(clazz);
+                }
+            }
+            return classes;
+        }
+    }
+
+    private static <T> List<T> merge(Collection<? extends ForkJoinTask<List<T>>> tasks) {
+        List<T> merged = new ArrayList<>();
+        for (ForkJoinTask<List<T>> task : tasks) {
+            merged.addAll(task.join());
+        }
+        return merged;
+    }
+
+    /**
+     * Path of the jar file in a jar:file:/path/to/file.jar!/package/path URL
+     */
+    private static String jarPath(URL resource) throws IOException {
+        // Parse JAR file path from URL
+        String jarPath = resource.getPath();
+
+        // Handle jar:file:/path/to/file.jar!/package/path format
+        if (jarPath.startsWith("file:")) {
+            jarPath = jarPath.substring(5);
+        }
+
+        int separatorIndex = jarPath.indexOf("!");
+        if (separatorIndex != -1) {
+            jarPath = jarPath.substring(0, separatorIndex);
+        }
+
+        // Decode URL encoding
+        return URLDecoder.decode(jarPath, "UTF-8");
+    }
+
+    /**
+     * A class file in a directory or a jar, read before its class is loaded
+     */
+    private static final class ClassFile {
+        private final String className;
+        private final File file;
+        private final JarFile jarFile;
+        private final JarEntry entry;
+
+        ClassFile(String className, File file, JarFile jarFile, JarEntry entry) {
+            this.className = className;
+            this.file = file;
+            this.jarFile = jarFile;
+            this.entry = entry;
+        }
+
+        InputStream open() throws IOException {
+            return new BufferedInputStream(file != null ? new FileInputStream(file) : jarFile.getInputStream(entry));
+        }
+    }
+
+    /**
+     * Descriptors ("Lcom/x/Service;") of the annotations that make a class a component
+     * @return null when class files cannot be pre-filtered: a plugin annotation is @Inherited,
+     * so subclasses are components without naming it
+     */
+    private Set<String> componentAnnotationDescriptors() {
+        List<Class<? extends Annotation>> types = new ArrayList<>(List.of(
+                Component.class, Service.class, Repository.class, RestController.class, Controller.class, Plugin.class));
+        for (ComponentAnnotationHandler handler : AnnotationHandlerRegistry.getInstance().getComponentHandlers()) {
+            types.add(handler.getAnnotationType());
+        }
+
+        Set<String> descriptors = new HashSet<>();
+        for (Class<? extends Annotation> type : types) {
+            if (type.isAnnotationPresent(Inherited.class)) {
+                return null;
+            }
+            descriptors.add('L' + type.getName().replace('.', '/') + ';');
+        }
+        return descriptors;
+    }
+
+    /**
+     * Read the class file's annotations without loading it
+     * @return the annotation descriptors, or null when the file is unreadable (the class is loaded and checked as before)
+     */
+    private static Set<String> readAnnotations(ClassFile source) {
+        try (InputStream in = source.open()) {
+            return ClassFileAnnotations.read(in);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Index of a classpath directory
+     * @return null when it has none
+     */
+    private ComponentIndex readIndex(File root) {
+        File file = new File(root, ComponentIndex.LOCATION);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            return ComponentIndex.read(in);
         } catch (IOException e) {
-            System.err.println("Error reading JAR file: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("Error reading component index: " + file + " (" + e.getMessage() + ")");
+            return null;
         }
+    }
 
-        return classes;
+    private ComponentIndex readIndex(JarFile jarFile) throws IOException {
+        JarEntry entry = jarFile.getJarEntry(ComponentIndex.LOCATION);
+        if (entry == null) {
+            return null;
+        }
+        try (InputStream in = jarFile.getInputStream(entry)) {
+            return ComponentIndex.read(in);
+        }
+    }
+
+    private boolean coversHandlers(ComponentIndex index) {
+        return index.covers(AnnotationHandlerRegistry.getInstance().getComponentHandlers());
+    }
+
+    /**
+     * Classpath directory a package directory belongs to
+     */
+    private static File rootOf(File packageDirectory, String packagePath) {
+        File root = packageDirectory;
+        for (String segment : packagePath.split("/")) {
+            if (!segment.isEmpty() && root != null) {
+                root = root.getParentFile();
+            }
+        }
+        return root;
     }
 
     /**
@@ -0,0 +1,48 @@
+package com.vcinsidedigital.webcore.core;
+
+/**
+ * Time spent scanning a package on one classpath root (a directory or a jar)
+ */
+public class RootTiming {
+    private final String root;
+    private final String packageName;
+    private final boolean indexed;
+    private final boolean cached;
+    private final int classFiles;
+    private final int components;
+    private final long nanos;
+
+    public RootTiming(String root, String packageName, boolean indexed, boolean cached, int classFiles, int components,
+                      long nanos) {
+        this.root = root;
+        this.packageName = packageName;
+        this.indexed = indexed;
+        this.cached = cached;
+        this.classFiles = classFiles;
+        this.components = components;
+        this.nanos = nanos;
+    }
+
+    public String getRoot() { return root; }
+    public String getPackageName() { return packageName; }
+    /**
+     * @return true if the root's component index was used instead of its class files
+     */
+    public boolean isIndexed() { return indexed; }
+    /**
+     * @return true if the class files were read by an earlier scan and only filtered again
+     */
+    public boolean isCached() { return cached; }
+    /**
+     * Class files found under the package (0 when indexed)
+     */
+    public int getClassFiles() { return classFiles; }
+    public int getComponents() { return components; }
+    public long getNanos() { return nanos; }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s): %s%s, %d components, %.1f ms", root, packageName,
+                indexed ? "index" : classFiles + " class files", cached ? " (cached)" : "", components, nanos / 1e6);
+    }
+}
@@ -0,0 +1,13 @@
+package com.vcinsidedigital.webcore.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a streamed response body
+ * Called by the server after the headers are sent; the stream is closed by the server
+ */
+@FunctionalInterface
+public interface BodyWriter {
+    void writeTo(OutputStream out) throws IOException;
+}
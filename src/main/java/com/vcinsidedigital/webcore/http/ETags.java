@@ -0,0 +1,92 @@
+package com.vcinsidedigital.webcore.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Entity tags (RFC 9110 section 8.8.3) for dynamic responses and If-None-Match checks
+ */
+public final class ETags {
+    // Content codings appended by variant() for compressed representations
+    private static final String[] ENCODINGS = {"gzip", "deflate"};
+
+    private ETags() {
+    }
+
+    /**
+     * Strong ETag from the body's length and CRC32, like the one of cached static files
+     */
+    public static String forBody(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        int length = body.remaining();
+        crc.update(body.duplicate());
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+
+    /**
+     * Strong ETag from a version token supplied by the application
+     * Tokens with characters not allowed in an entity tag are hashed
+     */
+    public static String forVersion(Object version) {
+        String token = String.valueOf(version);
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c <= 0x20 || c == '"' || c >= 0x7f) {
+                return forBody(ByteBuffer.wrap(token.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        return "\"" + token + "\"";
+    }
+
+    /**
+     * ETag of another representation of the same resource: "abc" becomes "abc-gzip"
+     * Each representation needs its own validator, so caches do not mix them
+     */
+    public static String variant(String etag, String suffix) {
+        if (etag == null || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    /**
+     * Weak comparison of If-None-Match against the current ETag
+     * Compressed variants of the ETag match too, since they validate the same content
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        return match(ifNoneMatch, etag) != null;
+    }
+
+    /**
+     * Like matches(), returning the matching tag, e.g. "abc-gzip" for the ETag "abc"
+     * A 304 sends it back, so the client keeps the validator of the variant it has
+     * @return the tag, or null if none matches
+     */
+    public static String match(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return null;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) {
+                return etag;
+            }
+            if (withoutEncoding(tag).equals(etag)) {
+                return tag;
+            }
+        }
+        return null;
+    }
+
+    private static String withoutEncoding(String etag) {
+        for (String encoding : ENCODINGS) {
+            String suffix = "-" + encoding + "\"";
+            if (etag.endsWith(suffix)) {
+                return etag.substring(0, etag.length() - suffix.length()) + "\"";
+            }
+        }
+        return etag;
+    }
+}
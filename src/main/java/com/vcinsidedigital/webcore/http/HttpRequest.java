@@ -1,6 +1,9 @@
 package com.vcinsidedigital.webcore.http;
 
 
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 public class HttpRequest {
@@ -8,11 +11,19 @@ public class HttpRequest {
     private final String path;
     private final Map<String, String> pathParams;
     private final Map<String, String> queryParams;
-    private final String body;
+    private final RequestBody body;
     private final Map<String, String> headers;
 
     public HttpRequest(String method, String path, Map<String, String> pathParams,
                        Map<String, String> queryParams, String body, Map<String, String> headers) {
+        this(method, path, pathParams, queryParams, body != null ? RequestBody.of(body) : null, headers);
+    }
+
+    /**
+     * Request whose body is read and decoded only when a handler asks for it
+     */
+    public HttpRequest(String method, String path, Map<String, String> pathParams,
+                       Map<String, String> queryParams, RequestBody body, Map<String, String> headers) {
         this.method = method;
         this.path = path;
         this.pathParams = pathParams;
@@ -21,10 +32,55 @@ public class HttpRequest {
         this.headers = headers;
     }
 
+    /**
+     * Copy of this request with the given path params, sharing the (possibly unread) body
+     */
+    public HttpRequest withPathParams(Map<String, String> pathParams) {
+        return new HttpRequest(method, path, pathParams, queryParams, body, headers);
+    }
+
     public String getMethod() { return method; }
     public String getPath() { return path; }
     public Map<String, String> getPathParams() { return pathParams; }
     public Map<String, String> getQueryParams() { return queryParams; }
-    public String getBody() { return body; }
+    public String getBody() { return body != null ? body.asString() : null; }
     public Map<String, String> getHeaders() { return headers; }
+
+    /**
+     * Header value by case-insensitive name (the server stores names as e.g. "Content-type")
+     * @return the first value, or null if the header is absent
+     */
+    public String getHeader(String name) {
+        if (headers == null) {
+            return null;
+        }
+        String value = headers.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Body as a stream; large uploads can be processed without buffering them
+     * @return the stream, or null if the request has no body
+     */
+    public InputStream getBodyStream() { return body != null ? body.asStream() : null; }
+
+    /**
+     * Body as UTF-8 text decoded while it is read, e.g. for a streaming JSON parser
+     * @return the reader, or null if the request has no body
+     */
+    public Reader getBodyReader() { return body != null ? body.asReader() : null; }
+
+    public byte[] getBodyBytes() { return body != null ? body.asBytes() : null; }
+
+    public ByteBuffer getBodyBuffer() { return body != null ? body.asByteBuffer() : null; }
+
+    public RequestBody getRequestBody() { return body; }
 }
\ No newline at end of file
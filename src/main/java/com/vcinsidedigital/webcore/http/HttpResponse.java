@@ -1,12 +1,18 @@
 package com.vcinsidedigital.webcore.http;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 
 public class HttpResponse {
     private int statusCode;
     private String body;
+    private ByteBuffer binaryBody;
     private String contentType;
     private Map<String, String> headers;
+    private BodyWriter bodyWriter;
+    private int streamBufferSize;
 
     public HttpResponse() {
         this.statusCode = 200;
@@ -21,9 +27,74 @@ public class HttpResponse {
 
     public HttpResponse body(String body) {
         this.body = body;
+        this.binaryBody = null;
+        this.bodyWriter = null;
         return this;
     }
 
+    /**
+     * Already encoded body, sent as is (no String round-trip, no copy)
+     * The array is not copied: do not modify it after handing it over
+     */
+    public HttpResponse body(byte[] bytes) {
+        return body(bytes != null ? ByteBuffer.wrap(bytes) : null);
+    }
+
+    /**
+     * Body from the buffer's remaining bytes
+     * The buffer's position is left untouched, so a cached buffer can be sent many times
+     */
+    public HttpResponse body(ByteBuffer buffer) {
+        this.binaryBody = buffer;
+        this.body = null;
+        this.bodyWriter = null;
+        return this;
+    }
+
+    /**
+     * Stream the body with chunked transfer encoding
+     * The writer runs after the headers are sent, so large bodies never sit in memory
+     */
+    public HttpResponse stream(BodyWriter writer) {
+        return stream(writer, 0);
+    }
+
+    /**
+     * Stream the body, holding back up to bufferSize bytes before committing to chunked encoding
+     * A body that fits in the buffer is sent with Content-Length; flush() does nothing until
+     * the buffer has overflowed. If the writer fails before that, an error response can still be sent.
+     */
+    public HttpResponse stream(BodyWriter writer, int bufferSize) {
+        this.bodyWriter = writer;
+        this.streamBufferSize = Math.max(0, bufferSize);
+        this.body = null;
+        this.binaryBody = null;
+        return this;
+    }
+
+    /**
+     * Stream the contents of an InputStream, closing it afterwards
+     */
+    public HttpResponse stream(InputStream in) {
+        return stream(out -> {
+            try (InputStream source = in) {
+                source.transferTo(out);
+            }
+        });
+    }
+
+    /**
+     * Stream each element as its own chunk (UTF-8), flushed as soon as it is produced
+     */
+    public HttpResponse stream(Iterator<String> chunks) {
+        return stream(out -> {
+            while (chunks.hasNext()) {
+                out.write(chunks.next().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        });
+    }
+
     public HttpResponse contentType(String type) {
         this.contentType = type;
         return this;
@@ -34,9 +105,51 @@ public class HttpResponse {
         return this;
     }
 
+    /**
+     * Copy with its own status and headers, sharing the body (buffers, strings and writers are not copied)
+     * Lets one encoded response be sent for several requests
+     */
+    public HttpResponse copy() {
+        HttpResponse copy = new HttpResponse();
+        copy.statusCode = statusCode;
+        copy.body = body;
+        copy.binaryBody = binaryBody;
+        copy.contentType = contentType;
+        copy.headers = new HashMap<>(headers);
+        copy.bodyWriter = bodyWriter;
+        copy.streamBufferSize = streamBufferSize;
+        return copy;
+    }
+
     public int getStatusCode() { return statusCode; }
-    public String getBody() { return body; }
+    /**
+     * Body as text; binary bodies are decoded (UTF-8) on each call
+     */
+    public String getBody() {
+        if (body == null && binaryBody != null) {
+            return StandardCharsets.UTF_8.decode(binaryBody.duplicate()).toString();
+        }
+        return body;
+    }
+
+    /**
+     * Body as bytes to send, without copying binary bodies backed by an array
+     * @return a view with its own position, or null when there is no body (or it is streamed)
+     */
+    public ByteBuffer getBodyBuffer() {
+        if (binaryBody != null) {
+            return binaryBody.duplicate();
+        }
+        if (body != null) {
+            return ByteBuffer.wrap(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return null;
+    }
+
     public String getContentType() { return contentType; }
     public Map<String, String> getHeaders() { return headers; }
+    public BodyWriter getBodyWriter() { return bodyWriter; }
+    public boolean isStreaming() { return bodyWriter != null; }
+    public int getStreamBufferSize() { return streamBufferSize; }
 }
 
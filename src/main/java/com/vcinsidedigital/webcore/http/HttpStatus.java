@@ -6,6 +6,7 @@ public enum HttpStatus {
     CREATED(201, "Created"),
     ACCEPTED(202, "Accepted"),
     NO_CONTENT(204, "No Content"),
+    PARTIAL_CONTENT(206, "Partial Content"),
 
     // 3xx Redirection
     MOVED_PERMANENTLY(301, "Moved Permanently"),
@@ -24,7 +25,9 @@ public enum HttpStatus {
     NOT_ACCEPTABLE(406, "Not Acceptable"),
     CONFLICT(409, "Conflict"),
     GONE(410, "Gone"),
+    PAYLOAD_TOO_LARGE(413, "Payload Too Large"),
     UNSUPPORTED_MEDIA_TYPE(415, "Unsupported Media Type"),
+    RANGE_NOT_SATISFIABLE(416, "Range Not Satisfiable"),
     UNPROCESSABLE_ENTITY(422, "Unprocessable Entity"),
     TOO_MANY_REQUESTS(429, "Too Many Requests"),
 
@@ -0,0 +1,22 @@
+package com.vcinsidedigital.webcore.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading a request body that exceeds the configured maximum size
+ * The server answers 413 Payload Too Large
+ */
+public class PayloadTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final long limit;
+
+    public PayloadTooLargeException(long limit) {
+        super("Request body exceeds " + limit + " bytes");
+        this.limit = limit;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
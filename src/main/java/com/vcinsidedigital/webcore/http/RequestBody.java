@@ -0,0 +1,165 @@
+package com.vcinsidedigital.webcore.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request payload, read from the connection only when first accessed
+ *
+ * The body can be consumed once as the raw stream (no buffering), or read into memory and
+ * then viewed as bytes, a ByteBuffer or a String any number of times. The String is decoded
+ * (UTF-8) only when asked for.
+ */
+public final class RequestBody {
+    private InputStream source;
+    private byte[] bytes;
+    private String text;
+    private boolean streamed;
+
+    private RequestBody(InputStream source, byte[] bytes, String text) {
+        this.source = source;
+        this.bytes = bytes;
+        this.text = text;
+    }
+
+    /**
+     * Body read lazily from the stream
+     */
+    public static RequestBody of(InputStream source) {
+        return new RequestBody(source, null, null);
+    }
+
+    /**
+     * Body read lazily from the stream, failing with PayloadTooLargeException past maxSize bytes
+     * @param maxSize limit in bytes, or a negative value for none
+     */
+    public static RequestBody of(InputStream source, long maxSize) {
+        return of(maxSize >= 0 ? new LimitedInputStream(source, maxSize) : source);
+    }
+
+    public static RequestBody of(byte[] bytes) {
+        return new RequestBody(null, bytes, null);
+    }
+
+    public static RequestBody of(String text) {
+        return new RequestBody(null, null, text);
+    }
+
+    /**
+     * Body as a stream
+     * The first call on an unread body hands out the connection stream itself, after which
+     * the other accessors are no longer available
+     */
+    public synchronized InputStream asStream() {
+        if (source != null && !streamed) {
+            streamed = true;
+            InputStream stream = source;
+            source = null;
+            return stream;
+        }
+        return new ByteArrayInputStream(asBytes());
+    }
+
+    /**
+     * Body as UTF-8 text, decoded while it is read (no intermediate byte[] or String)
+     */
+    public synchronized Reader asReader() {
+        if (text != null) {
+            return new StringReader(text);
+        }
+        return new InputStreamReader(asStream(), StandardCharsets.UTF_8);
+    }
+
+    public synchronized byte[] asBytes() {
+        if (bytes == null) {
+            if (streamed) {
+                throw new IllegalStateException("Request body was already consumed as a stream");
+            }
+            if (source != null) {
+                try (InputStream stream = source) {
+                    bytes = stream.readAllBytes();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read request body", e);
+                } finally {
+                    source = null;
+                }
+            } else {
+                bytes = text != null ? text.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Read-only view of the body bytes (no copy)
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(asBytes()).asReadOnlyBuffer();
+    }
+
+    public synchronized String asString() {
+        if (text == null) {
+            text = new String(asBytes(), StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    /**
+     * Stream that stops at the size limit instead of reading (and buffering) an oversized body
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && --remaining < 0) {
+                throw new PayloadTooLargeException(limit);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            // Ask for one byte past the limit, so a body of exactly limit bytes still passes
+            int read = super.read(b, off, (int) Math.min(len, remaining + 1));
+            if (read > 0) {
+                remaining -= read;
+                if (remaining < 0) {
+                    throw new PayloadTooLargeException(limit);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false; // reset() would undo the count
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining + 1));
+            remaining -= skipped;
+            if (remaining < 0) {
+                throw new PayloadTooLargeException(limit);
+            }
+            return skipped;
+        }
+    }
+}
@@ -134,6 +134,12 @@ public class PluginManager {
                         System.err.println("  ├─ ❌ " + e.getMessage());
                     }
 
+                    try {
+                        customizer.registerExecutorCustomization(config, plugin.getName());
+                    } catch (IllegalStateException e) {
+                        System.err.println("  ├─ ❌ " + e.getMessage());
+                    }
+
                     try {
                         customizer.registerRequestCustomization(config, plugin.getName());
                     } catch (IllegalStateException e) {
@@ -145,6 +151,12 @@ public class PluginManager {
                     } catch (IllegalStateException e) {
                         System.err.println("  ├─ ❌ " + e.getMessage());
                     }
+
+                    try {
+                        customizer.registerCompressionCustomization(config, plugin.getName());
+                    } catch (IllegalStateException e) {
+                        System.err.println("  ├─ ❌ " + e.getMessage());
+                    }
                 }
 
                 System.out.println("  ├─ Loaded: " + plugin.getName());
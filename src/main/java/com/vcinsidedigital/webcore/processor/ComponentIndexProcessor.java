@@ -0,0 +1,120 @@
+package com.vcinsidedigital.webcore.processor;
+
+import com.vcinsidedigital.webcore.core.ComponentIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes META-INF/webcore/components while compiling, so PackageScanner can find components
+ * without loading every class on the classpath
+ *
+ * Registered through META-INF/services: having web-core on the compile classpath is enough.
+ * Classes annotated with plugin component annotations (e.g. @ApiController) are indexed when
+ * those annotations are listed in an option:
+ * <pre>
+ * javac -Awebcore.components=com.externalplugin.annotations.annotation.ApiController ...
+ * </pre>
+ */
+public class ComponentIndexProcessor extends AbstractProcessor {
+    public static final String COMPONENTS_OPTION = "webcore.components";
+
+    private static final List<String> BUILT_IN = List.of(
+            "com.vcinsidedigital.webcore.annotations.Component",
+            "com.vcinsidedigital.webcore.annotations.Service",
+            "com.vcinsidedigital.webcore.annotations.Repository",
+            "com.vcinsidedigital.webcore.annotations.RestController",
+            "com.vcinsidedigital.webcore.annotations.Controller",
+            "com.vcinsidedigital.webcore.annotations.Plugin");
+
+    private final Set<String> classNames = new TreeSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new TreeSet<>(indexedAnnotations());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(COMPONENTS_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind().isClass()) {
+                    // Binary name: nested classes are loaded as Outer$Inner
+                    classNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+                }
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false; // Other processors may handle the same annotations
+    }
+
+    private Set<String> indexedAnnotations() {
+        Set<String> indexed = new LinkedHashSet<>(BUILT_IN);
+        String extra = processingEnv != null ? processingEnv.getOptions().get(COMPONENTS_OPTION) : null;
+        if (extra != null) {
+            for (String name : extra.split(",")) {
+                if (!name.isBlank()) {
+                    indexed.add(name.trim());
+                }
+            }
+        }
+        return indexed;
+    }
+
+    private void writeIndex() {
+        Filer filer = processingEnv.getFiler();
+        Set<String> indexed = new TreeSet<>(classNames);
+        readPreviousIndex(filer, indexed);
+        if (indexed.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                new ComponentIndex(indexedAnnotations(), indexed).write(writer);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not write " + ComponentIndex.LOCATION + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Incremental builds only compile changed sources: keep the classes indexed by the last full build
+     * (an entry whose class lost its annotation is filtered out again by PackageScanner)
+     */
+    private void readPreviousIndex(Filer filer, Set<String> indexed) {
+        try {
+            FileObject previous = filer.getResource(StandardLocation.CLASS_OUTPUT, "", ComponentIndex.LOCATION);
+            try (InputStream in = previous.openInputStream()) {
+                indexed.addAll(ComponentIndex.read(in).getClassNames());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index
+        }
+    }
+}
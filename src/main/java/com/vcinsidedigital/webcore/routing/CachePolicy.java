@@ -0,0 +1,40 @@
+package com.vcinsidedigital.webcore.routing;
+
+import com.vcinsidedigital.webcore.annotations.Cacheable;
+
+import java.lang.reflect.Method;
+
+/**
+ * A route's @Cacheable settings, parsed once at registration
+ */
+final class CachePolicy {
+    private final long ttlNanos;
+    private final RequestKey key;
+
+    private CachePolicy(long ttlNanos, RequestKey key) {
+        this.ttlNanos = ttlNanos;
+        this.key = key;
+    }
+
+    /**
+     * @return the policy, or null when the handler is not @Cacheable
+     */
+    static CachePolicy of(Method method) {
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable == null) {
+            return null;
+        }
+        if (cacheable.ttl() <= 0) {
+            throw new IllegalArgumentException("@Cacheable ttl must be positive: " + method.getName() + "()");
+        }
+        return new CachePolicy(cacheable.unit().toNanos(cacheable.ttl()), RequestKey.of(cacheable.key(), "@Cacheable"));
+    }
+
+    long getTtlNanos() {
+        return ttlNanos;
+    }
+
+    RequestKey getKey() {
+        return key;
+    }
+}
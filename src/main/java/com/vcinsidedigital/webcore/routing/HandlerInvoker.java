@@ -0,0 +1,61 @@
+package com.vcinsidedigital.webcore.routing;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Calls a controller method with already resolved arguments
+ * Built once per Route, so no reflection lookups happen per request
+ */
+@FunctionalInterface
+public interface HandlerInvoker {
+
+    /**
+     * Invoke the handler
+     * Exceptions thrown by the controller are wrapped in InvocationTargetException,
+     * whatever the strategy, so error handling stays the same when switching
+     */
+    Object invoke(Object[] args) throws Exception;
+
+    static HandlerInvoker create(InvocationStrategy strategy, Object controller, Method method) {
+        if (strategy == InvocationStrategy.METHOD_HANDLE) {
+            try {
+                return methodHandle(controller, method);
+            } catch (IllegalAccessException e) {
+                System.err.println("  [ROUTE] ⚠️  MethodHandle unavailable for " + method.getName() +
+                        "(), falling back to reflection: " + e.getMessage());
+            }
+        }
+        return reflective(controller, method);
+    }
+
+    static HandlerInvoker reflective(Object controller, Method method) {
+        method.setAccessible(true);
+        return args -> method.invoke(controller, args);
+    }
+
+    static HandlerInvoker methodHandle(Object controller, Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(controller);
+        }
+
+        // Adapt every handler to the same (Object[])Object shape so invokeExact can be used
+        MethodHandle invoker = handle
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+
+        return args -> {
+            try {
+                return (Object) invoker.invokeExact(args);
+            } catch (Throwable t) {
+                throw new InvocationTargetException(t);
+            }
+        };
+    }
+}
@@ -0,0 +1,23 @@
+package com.vcinsidedigital.webcore.routing;
+
+/**
+ * How the Router calls controller methods
+ */
+public enum InvocationStrategy {
+    /**
+     * MethodHandle bound to the controller once at registration time (default)
+     */
+    METHOD_HANDLE,
+
+    /**
+     * Plain Method.invoke on every request
+     */
+    REFLECTION;
+
+    /**
+     * Parse a strategy name from command line args (e.g. "reflection", "method-handle")
+     */
+    public static InvocationStrategy fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,24 @@
+package com.vcinsidedigital.webcore.routing;
+
+/**
+ * How the Router serializes controller results that are not an HttpResponse
+ */
+public enum JsonWriteMode {
+    /**
+     * Encoded into memory by the Router's codec, sent with Content-Length (default)
+     */
+    BUFFERED,
+
+    /**
+     * Encoded straight into the response stream (GsonCodec: through a buffered UTF-8 writer)
+     * Small bodies still get a Content-Length; larger ones are sent chunked as they are produced
+     */
+    STREAMING;
+
+    /**
+     * Parse a mode name from command line args (e.g. "streaming", "buffered")
+     */
+    public static JsonWriteMode fromName(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
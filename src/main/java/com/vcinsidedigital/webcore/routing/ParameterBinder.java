@@ -0,0 +1,15 @@
+package com.vcinsidedigital.webcore.routing;
+
+import com.vcinsidedigital.webcore.extensibility.ParameterContext;
+import com.vcinsidedigital.webcore.http.HttpRequest;
+
+/**
+ * Produces the value of one handler parameter for a request
+ * Resolved once per Route, so binding a request is a plain array walk
+ */
+@FunctionalInterface
+public interface ParameterBinder {
+    ParameterBinder NULL = (request, context) -> null;
+
+    Object bind(HttpRequest request, ParameterContext context) throws Exception;
+}
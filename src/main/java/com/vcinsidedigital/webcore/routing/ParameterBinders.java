@@ -0,0 +1,104 @@
+package com.vcinsidedigital.webcore.routing;
+
+import com.vcinsidedigital.webcore.annotations.Body;
+import com.vcinsidedigital.webcore.annotations.Path;
+import com.vcinsidedigital.webcore.annotations.Query;
+import com.vcinsidedigital.webcore.codec.Codec;
+import com.vcinsidedigital.webcore.codec.CodecNegotiation;
+import com.vcinsidedigital.webcore.codec.TypeCodec;
+import com.vcinsidedigital.webcore.extensibility.AnnotationHandlerRegistry;
+import com.vcinsidedigital.webcore.extensibility.ParameterAnnotationHandler;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resolves the binding strategy of every handler parameter at registration time
+ */
+class ParameterBinders {
+    private final List<Codec> codecs;
+
+    ParameterBinders(List<Codec> codecs) {
+        this.codecs = List.copyOf(codecs);
+    }
+
+    ParameterBinder[] forMethod(Method method) {
+        Parameter[] params = method.getParameters();
+        ParameterBinder[] binders = new ParameterBinder[params.length];
+
+        // Custom handlers are looked up once here; plugins register them in onLoad, before routes exist
+        List<ParameterAnnotationHandler> handlers = AnnotationHandlerRegistry.getInstance().getParameterHandlers();
+
+        for (int i = 0; i < params.length; i++) {
+            binders[i] = forParameter(params[i], handlers);
+        }
+        return binders;
+    }
+
+    private ParameterBinder forParameter(Parameter param, List<ParameterAnnotationHandler> handlers) {
+        // Try built-in parameter annotations first
+        if (param.isAnnotationPresent(Path.class)) {
+            String paramName = param.getAnnotation(Path.class).value();
+            Function<String, Object> converter = converterFor(param.getType());
+            return (request, context) -> convert(request.getPathParams().get(paramName), converter);
+        }
+
+        if (param.isAnnotationPresent(Body.class)) {
+            return bodyBinder(param.getType(), param.getParameterizedType());
+        }
+
+        if (param.isAnnotationPresent(Query.class)) {
+            String paramName = param.getAnnotation(Query.class).value();
+            Function<String, Object> converter = converterFor(param.getType());
+            return (request, context) -> convert(request.getQueryParams().get(paramName), converter);
+        }
+
+        // Try custom parameter handlers from plugins
+        for (ParameterAnnotationHandler handler : handlers) {
+            if (handler.canHandle(param)) {
+                return (request, context) -> handler.resolveParameter(param, context);
+            }
+        }
+
+        // If not handled, leave as null
+        return ParameterBinder.NULL;
+    }
+
+    private ParameterBinder bodyBinder(Class<?> type, Type genericType) {
+        // Raw body types skip String decoding and JSON parsing
+        if (type == InputStream.class) return (request, context) -> request.getBodyStream();
+        if (type == byte[].class) return (request, context) -> request.getBodyBytes();
+        if (type == ByteBuffer.class) return (request, context) -> request.getBodyBuffer();
+
+        // Resolved once per route and codec; generic, so List<Employee> binds to employees rather than maps
+        List<TypeCodec<Object>> typeCodecs = new ArrayList<>(codecs.size());
+        for (Codec codec : codecs) {
+            typeCodecs.add(codec.forType(genericType));
+        }
+        return (request, context) -> {
+            InputStream body = request.getBodyStream();
+            if (body == null) {
+                return null;
+            }
+            int index = CodecNegotiation.forContentType(codecs, request.getHeader("Content-Type"));
+            return typeCodecs.get(index).decode(body);
+        };
+    }
+
+    private static Object convert(String value, Function<String, Object> converter) {
+        return value != null ? converter.apply(value) : null;
+    }
+
+    private static Function<String, Object> converterFor(Class<?> type) {
+        if (type == Long.class || type == long.class) return Long::parseLong;
+        if (type == Integer.class || type == int.class) return Integer::parseInt;
+        if (type == Boolean.class || type == boolean.class) return Boolean::parseBoolean;
+        return value -> value;
+    }
+}
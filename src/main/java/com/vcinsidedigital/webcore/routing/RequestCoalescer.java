@@ -0,0 +1,107 @@
+package com.vcinsidedigital.webcore.routing;
+
+import com.vcinsidedigital.webcore.http.HttpResponse;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-flight computations of @SingleFlight routes, shared by concurrent identical requests
+ *
+ * If the first request fails, answers 304 or streams its body, the waiting requests run the handler themselves.
+ */
+public class RequestCoalescer {
+    private final ConcurrentHashMap<String, CompletableFuture<HttpResponse>> flights = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * Lead a new computation for the key, or follow the one already running
+     */
+    Flight join(String key) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        CompletableFuture<HttpResponse> running = flights.putIfAbsent(key, future);
+        if (running != null) {
+            return new Flight(key, running, false);
+        }
+        executions.increment();
+        return new Flight(key, future, true);
+    }
+
+    /**
+     * Handler calls made by leading requests
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * Requests answered with the response of another request instead of calling the handler
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    /**
+     * Computations running right now
+     */
+    public int getInFlight() {
+        return flights.size();
+    }
+
+    final class Flight {
+        private final String key;
+        private final CompletableFuture<HttpResponse> future;
+        private final boolean leader;
+
+        private Flight(String key, CompletableFuture<HttpResponse> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        boolean isLeader() {
+            return leader;
+        }
+
+        /**
+         * Follower: wait for the leader
+         * @return a copy of its response, or null when it had none to share
+         */
+        HttpResponse await() {
+            HttpResponse shared = future.join();
+            if (shared == null) {
+                return null;
+            }
+            collapsed.increment();
+            return shared.copy();
+        }
+
+        /**
+         * Leader: hand the encoded response to the waiting requests
+         * Streamed bodies and responses setting cookies are not shared
+         */
+        void share(HttpResponse response) {
+            if (response.isStreaming() || response.getHeaders().containsKey("Set-Cookie")) {
+                future.complete(null);
+                return;
+            }
+            HttpResponse shared = response.copy();
+            ByteBuffer body = response.getBodyBuffer();
+            if (body != null) {
+                shared.body(body); // Text bodies are encoded once for every waiting request
+            }
+            future.complete(shared);
+        }
+
+        /**
+         * Leader: release the waiting requests if nothing was shared, and let the next request lead
+         */
+        void finish() {
+            future.complete(null);
+            flights.remove(key, future);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.vcinsidedigital.webcore.routing;
+
+import com.vcinsidedigital.webcore.http.HttpRequest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Identifies requests that get the same response, for @Cacheable and @SingleFlight routes
+ * Parsed once at registration from "query:name" / "header:Name" key parts
+ */
+final class RequestKey {
+    private final String[] queryParams; // null: all of them
+    private final String[] headers;
+
+    private RequestKey(String[] queryParams, String[] headers) {
+        this.queryParams = queryParams;
+        this.headers = headers;
+    }
+
+    /**
+     * @param parts key parts; when empty, every query parameter is part of the key
+     * @param annotation annotation name for error messages
+     */
+    static RequestKey of(String[] parts, String annotation) {
+        List<String> queryParams = new ArrayList<>();
+        List<String> headers = new ArrayList<>();
+        for (String part : parts) {
+            if (part.startsWith("query:")) {
+                queryParams.add(part.substring(6).trim());
+            } else if (part.startsWith("header:")) {
+                headers.add(part.substring(7).trim());
+            } else {
+                throw new IllegalArgumentException(annotation + " key must start with \"query:\" or \"header:\": " + part);
+            }
+        }
+        return new RequestKey(parts.length == 0 ? null : queryParams.toArray(new String[0]),
+                headers.toArray(new String[0]));
+    }
+
+    /**
+     * "GET /path?a=1&b=2" followed by the selected headers and the negotiated media type
+     * Values are URL-encoded, so a crafted value cannot produce another request's key
+     * @param mediaType negotiated response media type, or null when the route has only one
+     */
+    String build(HttpRequest request, String mediaType) {
+        StringBuilder key = new StringBuilder(64)
+                .append(request.getMethod()).append(' ').append(request.getPath());
+
+        Map<String, String> query = request.getQueryParams();
+        char separator = '?';
+        if (queryParams == null) {
+            if (query != null && !query.isEmpty()) {
+                for (Map.Entry<String, String> param : new TreeMap<>(query).entrySet()) {
+                    appendParam(key, separator, param.getKey(), param.getValue());
+                    separator = '&';
+                }
+            }
+        } else {
+            for (String name : queryParams) {
+                String value = query != null ? query.get(name) : null;
+                if (value != null) {
+                    appendParam(key, separator, name, value);
+                    separator = '&';
+                }
+            }
+        }
+
+        for (String name : headers) {
+            String value = request.getHeader(name);
+            key.append('\n').append(name).append(':');
+            if (value != null) {
+                key.append(encode(value));
+            }
+        }
+        if (mediaType != null) {
+            key.append("\nAccept:").append(mediaType);
+        }
+        return key.toString();
+    }
+
+    private static void appendParam(StringBuilder key, char separator, String name, String value) {
+        key.append(separator).append(encode(name)).append('=').append(encode(value));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,238 @@
+package com.vcinsidedigital.webcore.routing;
+
+import com.vcinsidedigital.webcore.http.HttpResponse;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Encoded responses of @Cacheable routes, kept until their TTL expires or the size bound evicts them
+ *
+ * Once bodies, headers and keys exceed the maximum size, the least recently used entries are
+ * evicted. Lookups take no lock; only puts and evictions do. A hit is copied into a new
+ * HttpResponse that shares the stored body bytes.
+ * <pre>
+ * ResponseCache cache = WebServerApplication.getRouter().getResponseCache();
+ * cache.invalidatePrefix("GET /api/employees");
+ * System.out.println(cache.getHits() + " hits, " + cache.getMisses() + " misses");
+ * </pre>
+ */
+public class ResponseCache {
+    public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+    // Approximate per-entry cost of the entry, map node and response objects
+    private static final int ENTRY_OVERHEAD = 160;
+
+    // Lookups never lock: recency is an access stamp, read only when evicting
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong size = new AtomicLong();
+    private volatile long maxSize = DEFAULT_MAX_SIZE;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Bound on the cached bodies, headers and keys, in bytes (16MB by default; 0 disables the cache)
+     */
+    public ResponseCache setMaxSize(long maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        synchronized (this) {
+            evict();
+        }
+        return this;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return a copy of the cached response, or null on a miss or when the entry has expired
+     */
+    HttpResponse get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+            if (remove(key, entry)) {
+                expirations.increment();
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.response.copy(); // Shares the stored body: its position never moves
+    }
+
+    /**
+     * Cache a successful, fully encoded response; streamed bodies and cookies are never stored
+     */
+    void put(String key, Route route, HttpResponse response, long ttlNanos) {
+        if (response.getStatusCode() != 200 || response.isStreaming() || response.getHeaders().containsKey("Set-Cookie")) {
+            return;
+        }
+        ByteBuffer body = response.getBodyBuffer();
+        if (body == null) {
+            return;
+        }
+
+        Entry entry = new Entry(route, response.copy().body(body), System.nanoTime() + ttlNanos);
+        entry.size = ENTRY_OVERHEAD + body.remaining() + 2L * key.length() + headersSize(response.getHeaders());
+        if (entry.size > maxSize) {
+            return;
+        }
+        entry.lastAccess = clock.incrementAndGet();
+
+        synchronized (this) {
+            Entry previous = entries.put(key, entry);
+            size.addAndGet(previous != null ? entry.size - previous.size : entry.size);
+            evict();
+        }
+    }
+
+    // ===== Invalidation =====
+
+    /**
+     * Remove every cached response of a route, e.g. invalidateRoute("GET", "/api/employees/{id}")
+     * @return the number of entries removed
+     */
+    public int invalidateRoute(String method, String path) {
+        return invalidate((key, entry) -> entry.route.getMethod().equalsIgnoreCase(method) && entry.route.getPath().equals(path));
+    }
+
+    public int invalidateRoute(Route route) {
+        return invalidate((key, entry) -> entry.route == route);
+    }
+
+    /**
+     * Remove the entries whose key starts with a prefix ending at a path boundary, e.g. "GET /api/employees"
+     * (which matches "/api/employees/1" and any query string, but not "/api/employees-archive")
+     * @return the number of entries removed
+     */
+    public int invalidatePrefix(String keyPrefix) {
+        return invalidate((key, entry) -> matchesPrefix(key, keyPrefix));
+    }
+
+    public void invalidateAll() {
+        invalidate((key, entry) -> true);
+    }
+
+    private int invalidate(BiPredicate<String, Entry> filter) {
+        int removed = 0;
+        for (Map.Entry<String, Entry> next : entries.entrySet()) {
+            if (filter.test(next.getKey(), next.getValue()) && remove(next.getKey(), next.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static boolean matchesPrefix(String key, String prefix) {
+        if (!key.startsWith(prefix)) {
+            return false;
+        }
+        if (key.length() == prefix.length() || prefix.endsWith("/") || prefix.endsWith("?")) {
+            return true;
+        }
+        char next = key.charAt(prefix.length());
+        return next == '/' || next == '?' || next == '\n'; // '\n' starts the header and media type parts
+    }
+
+    // ===== Statistics =====
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entries removed to stay within the maximum size
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Entries found expired on lookup
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Estimated bytes held, counted against the maximum size
+     */
+    public long getSize() {
+        return size.get();
+    }
+
+    // ===== Internals =====
+
+    /**
+     * Remove the least recently used entries until the cache is back under its bound
+     * Called with the lock held; frees an extra 1/8 of the bound so a full cache does not sort on every put
+     */
+    private void evict() {
+        if (size.get() <= maxSize) {
+            return;
+        }
+        long target = maxSize - maxSize / 8;
+        List<Map.Entry<String, Entry>> eldest = new ArrayList<>(entries.entrySet());
+        eldest.sort(Comparator.comparingLong(next -> next.getValue().lastAccess));
+        for (Map.Entry<String, Entry> next : eldest) {
+            if (size.get() <= target) {
+                break;
+            }
+            if (remove(next.getKey(), next.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private boolean remove(String key, Entry entry) {
+        if (!entries.remove(key, entry)) {
+            return false;
+        }
+        size.addAndGet(-entry.size);
+        return true;
+    }
+
+    private static long headersSize(Map<String, String> headers) {
+        long total = 0;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            total += 2L * (header.getKey().length() + header.getValue().length()) + 32;
+        }
+        return total;
+    }
+
+    private static final class Entry {
+        private final Route route;
+        private final HttpResponse response;
+        private final long expiresAt;
+        private long size;
+        private volatile long lastAccess;
+
+        Entry(Route route, HttpResponse response, long expiresAt) {
+            this.route = route;
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.vcinsidedigital.webcore.routing;
 
+import com.vcinsidedigital.webcore.annotations.ETag;
 import com.vcinsidedigital.webcore.annotations.Middleware;
+import com.vcinsidedigital.webcore.annotations.SingleFlight;
+import com.vcinsidedigital.webcore.codec.TypeCodec;
 import com.vcinsidedigital.webcore.http.*;
 import com.vcinsidedigital.webcore.middleware.MiddlewareHandler;
 
@@ -17,8 +20,23 @@ public class Route {
     private final Method handlerMethod;
     private final List<Class<? extends MiddlewareHandler>> classMiddlewares;
     private final List<Class<? extends MiddlewareHandler>> methodMiddlewares;
+    private final boolean etag;
+    private final Method versionMethod;
+    private final CachePolicy cachePolicy;
+    private final RequestKey singleFlightKey;
+    private HandlerInvoker invoker;
+    private HandlerInvoker versionInvoker;
+    private ParameterBinder[] parameterBinders = new ParameterBinder[0];
+    private List<TypeCodec<Object>> responseCodecs;
+    private MiddlewareHandler[] classMiddlewareChain = new MiddlewareHandler[0];
+    private MiddlewareHandler[] middlewareChain = new MiddlewareHandler[0];
 
     public Route(String method, String path, Object controller, Method handlerMethod) {
+        this(method, path, controller, handlerMethod, InvocationStrategy.METHOD_HANDLE);
+    }
+
+    public Route(String method, String path, Object controller, Method handlerMethod,
+                 InvocationStrategy invocationStrategy) {
         this.method = method;
         this.path = path;
         this.controller = controller;
@@ -27,6 +45,41 @@ public class Route {
         this.pattern = compilePattern(path);
         this.classMiddlewares = extractClassMiddlewares(controller);
         this.methodMiddlewares = extractMethodMiddlewares(handlerMethod);
+        this.etag = handlerMethod.isAnnotationPresent(ETag.class);
+        this.versionMethod = findVersionMethod(controller, handlerMethod);
+        this.cachePolicy = CachePolicy.of(handlerMethod);
+        SingleFlight singleFlight = handlerMethod.getAnnotation(SingleFlight.class);
+        this.singleFlightKey = singleFlight != null ? RequestKey.of(singleFlight.key(), "@SingleFlight") : null;
+        compileInvoker(invocationStrategy);
+    }
+
+    /**
+     * (Re)build the invoker used to call the handler method
+     */
+    final void compileInvoker(InvocationStrategy invocationStrategy) {
+        this.invoker = HandlerInvoker.create(invocationStrategy, controller, handlerMethod);
+        if (versionMethod != null) {
+            this.versionInvoker = HandlerInvoker.create(invocationStrategy, controller, versionMethod);
+        }
+    }
+
+    /**
+     * Method named by @ETag(version = ...): no parameters, or the same parameters as the handler
+     */
+    private static Method findVersionMethod(Object controller, Method handlerMethod) {
+        ETag annotation = handlerMethod.getAnnotation(ETag.class);
+        if (annotation == null || annotation.version().isEmpty()) {
+            return null;
+        }
+
+        for (Method candidate : controller.getClass().getDeclaredMethods()) {
+            if (candidate.getName().equals(annotation.version()) && (candidate.getParameterCount() == 0
+                    || Arrays.equals(candidate.getParameterTypes(), handlerMethod.getParameterTypes()))) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("@ETag version method not found: " +
+                controller.getClass().getSimpleName() + "." + annotation.version() + "()");
     }
 
     private List<Class<? extends MiddlewareHandler>> extractClassMiddlewares(Object controller) {
@@ -81,11 +134,61 @@ public class Route {
         return params;
     }
 
+    /**
+     * Set the binders resolved for each handler parameter, in declaration order
+     */
+    void setParameterBinders(ParameterBinder[] parameterBinders) {
+        this.parameterBinders = parameterBinders;
+    }
+
+    /**
+     * Set the codecs for the handler's declared return type, one per Router codec
+     * (null when results are not encoded)
+     */
+    void setResponseCodecs(List<TypeCodec<Object>> responseCodecs) {
+        this.responseCodecs = responseCodecs;
+    }
+
+    /**
+     * Set the middleware instances for this route
+     * @param classMiddlewareChain class-level middlewares only (used for CORS preflight)
+     * @param middlewareChain class-level followed by method-level middlewares
+     */
+    void setMiddlewareChains(MiddlewareHandler[] classMiddlewareChain, MiddlewareHandler[] middlewareChain) {
+        this.classMiddlewareChain = classMiddlewareChain;
+        this.middlewareChain = middlewareChain;
+    }
+
     public Object getController() { return controller; }
     public Method getHandlerMethod() { return handlerMethod; }
+    public HandlerInvoker getInvoker() { return invoker; }
+    /**
+     * @return true if the handler is annotated with @ETag
+     */
+    public boolean hasETag() { return etag; }
+    /**
+     * Invoker of the @ETag version method, or null when the ETag is a hash of the body
+     */
+    public HandlerInvoker getVersionInvoker() { return versionInvoker; }
+    public boolean isVersionWithArguments() { return versionMethod != null && versionMethod.getParameterCount() > 0; }
+    /**
+     * @return true if the handler is annotated with @Cacheable
+     */
+    public boolean isCacheable() { return cachePolicy != null; }
+    CachePolicy getCachePolicy() { return cachePolicy; }
+    /**
+     * @return true if the handler is annotated with @SingleFlight
+     */
+    public boolean isSingleFlight() { return singleFlightKey != null; }
+    RequestKey getSingleFlightKey() { return singleFlightKey; }
+    public ParameterBinder[] getParameterBinders() { return parameterBinders; }
+    public List<TypeCodec<Object>> getResponseCodecs() { return responseCodecs; }
     public String getMethod() { return method; }
     public String getPath() { return path; }
     public Pattern getPattern() { return pattern; }
+    public List<String> getPathVariables() { return pathVariables; }
     public List<Class<? extends MiddlewareHandler>> getClassMiddlewares() { return classMiddlewares; }
     public List<Class<? extends MiddlewareHandler>> getMethodMiddlewares() { return methodMiddlewares; }
+    public MiddlewareHandler[] getClassMiddlewareChain() { return classMiddlewareChain; }
+    public MiddlewareHandler[] getMiddlewareChain() { return middlewareChain; }
 }
@@ -0,0 +1,142 @@
+package com.vcinsidedigital.webcore.routing;
+
+import java.util.*;
+
+/**
+ * Segment trie used by the Router to resolve routes without scanning every pattern.
+ * One tree is kept per HTTP method. Static segments take priority over {var} captures,
+ * and the lookup backtracks when a static branch does not lead to a route.
+ */
+class RouteTree {
+    private final Node root = new Node();
+
+    /**
+     * Check if a route path can be stored in the tree
+     * Paths mixing literals and variables inside one segment (e.g. "/files/{name}.json") cannot
+     */
+    static boolean supports(String path) {
+        for (String segment : splitPath(path)) {
+            if (!isVariable(segment) && (segment.indexOf('{') >= 0 || segment.indexOf('}') >= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add a route to the tree
+     * @return false if an equivalent route was already registered (the first one wins)
+     */
+    boolean insert(Route route) {
+        Node node = root;
+        for (String segment : splitPath(route.getPath())) {
+            if (isVariable(segment)) {
+                if (node.variableChild == null) {
+                    node.variableChild = new Node();
+                }
+                node = node.variableChild;
+            } else {
+                node = node.staticChildren.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+
+        if (node.route != null) {
+            return false;
+        }
+        node.route = route;
+        return true;
+    }
+
+    /**
+     * Find the route for a request path
+     * @return the match, or null if no route accepts the path
+     */
+    Match find(String path) {
+        String[] segments = splitPath(path);
+        String[] captures = new String[segments.length];
+        Route route = find(root, segments, 0, captures, 0);
+        return route != null ? new Match(route, captures) : null;
+    }
+
+    private Route find(Node node, String[] segments, int index, String[] captures, int captured) {
+        if (index == segments.length) {
+            return node.route;
+        }
+
+        String segment = segments[index];
+
+        Node staticChild = node.staticChildren.get(segment);
+        if (staticChild != null) {
+            Route route = find(staticChild, segments, index + 1, captures, captured);
+            if (route != null) {
+                return route;
+            }
+        }
+
+        // Variables never match an empty segment, same as the "([^/]+)" pattern in Route
+        if (node.variableChild != null && !segment.isEmpty()) {
+            captures[captured] = segment;
+            return find(node.variableChild, segments, index + 1, captures, captured + 1);
+        }
+
+        return null;
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'
+                && segment.indexOf('{', 1) < 0 && segment.indexOf('}') == segment.length() - 1;
+    }
+
+    /**
+     * Split a path on '/' keeping empty segments, so "/" and "/api/" keep their trailing segment
+     */
+    static String[] splitPath(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int count = 1;
+        for (int i = start; i < path.length(); i++) {
+            if (path.charAt(i) == '/') count++;
+        }
+
+        String[] segments = new String[count];
+        int segment = 0;
+        int segmentStart = start;
+        for (int i = start; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                segments[segment++] = path.substring(segmentStart, i);
+                segmentStart = i + 1;
+            }
+        }
+        segments[segment] = path.substring(segmentStart);
+        return segments;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> staticChildren = new HashMap<>();
+        private Node variableChild;
+        private Route route;
+    }
+
+    /**
+     * Route resolved by the tree, with the captured {var} values in declaration order
+     */
+    static final class Match {
+        private final Route route;
+        private final String[] captures;
+
+        private Match(Route route, String[] captures) {
+            this.route = route;
+            this.captures = captures;
+        }
+
+        Route getRoute() { return route; }
+
+        Map<String, String> getPathParams() {
+            List<String> names = route.getPathVariables();
+            Map<String, String> params = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                params.put(names.get(i), captures[i]);
+            }
+            return params;
+        }
+    }
+}
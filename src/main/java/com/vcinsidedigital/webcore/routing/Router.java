@@ -1,21 +1,160 @@
 package com.vcinsidedigital.webcore.routing;
 
 import com.vcinsidedigital.webcore.annotations.*;
+import com.vcinsidedigital.webcore.codec.CborCodec;
+import com.vcinsidedigital.webcore.codec.Codec;
+import com.vcinsidedigital.webcore.codec.CodecNegotiation;
+import com.vcinsidedigital.webcore.codec.GsonCodec;
+import com.vcinsidedigital.webcore.codec.TypeCodec;
+import com.vcinsidedigital.webcore.core.DIContainer;
 import com.vcinsidedigital.webcore.core.PackageScanner;
 import com.vcinsidedigital.webcore.extensibility.AnnotationHandlerRegistry;
 import com.vcinsidedigital.webcore.extensibility.ComponentAnnotationHandler;
-import com.vcinsidedigital.webcore.extensibility.ParameterAnnotationHandler;
 import com.vcinsidedigital.webcore.extensibility.ParameterContext;
 import com.vcinsidedigital.webcore.http.*;
-import com.google.gson.Gson;
 import com.vcinsidedigital.webcore.middleware.MiddlewareHandler;
 
 import java.lang.reflect.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class Router {
+    // Sent for every unmatched request: encoded once
+    private static final byte[] NOT_FOUND_BODY = "{\"error\": \"Not Found\"}".getBytes(StandardCharsets.UTF_8);
+    // JsonWriteMode.STREAMING: bodies up to this size are still sent with Content-Length
+    private static final int JSON_STREAM_BUFFER_SIZE = 8 * 1024;
+
     private final List<Route> routes = new ArrayList<>();
-    private final Gson gson = new Gson();
+    private final Map<String, Map<String, Route>> staticRoutes = new HashMap<>();
+    private final Map<String, RouteTree> routeTrees = new LinkedHashMap<>();
+    private final List<Route> patternRoutes = new ArrayList<>();
+    // Negotiated by Accept / Content-Type; the first one is the default
+    private final List<Codec> codecs = new ArrayList<>(List.of(new GsonCodec(), new CborCodec()));
+    private List<TypeCodec<Object>> objectCodecs = forAllCodecs(Object.class);
+    private ParameterBinders parameterBinders = new ParameterBinders(codecs);
+    private final DIContainer container;
+    private InvocationStrategy invocationStrategy = InvocationStrategy.METHOD_HANDLE;
+    private JsonWriteMode jsonWriteMode = JsonWriteMode.BUFFERED;
+    private boolean autoETags;
+    private final ResponseCache responseCache = new ResponseCache();
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    public Router() {
+        this(new DIContainer());
+    }
+
+    /**
+     * @param container container used to create middleware instances, so they can use @Inject
+     */
+    public Router(DIContainer container) {
+        this.container = container;
+    }
+
+    /**
+     * Choose how controller methods are called
+     * Routes already registered are recompiled with the new strategy
+     */
+    public void setInvocationStrategy(InvocationStrategy invocationStrategy) {
+        this.invocationStrategy = invocationStrategy;
+        for (Route route : routes) {
+            route.compileInvoker(invocationStrategy);
+        }
+    }
+
+    public InvocationStrategy getInvocationStrategy() {
+        return invocationStrategy;
+    }
+
+    /**
+     * Default codec for @Body parameters and controller results (GsonCodec by default)
+     * Used when the request's Accept / Content-Type names no other registered codec
+     * Routes already registered resolve their types again with the new codec
+     */
+    public void setCodec(Codec codec) {
+        codecs.set(0, codec);
+        recompileCodecs();
+    }
+
+    /**
+     * Add a codec selected by Accept / Content-Type (CborCodec is registered by default)
+     * A codec with the same media type as a registered one replaces it
+     */
+    public void addCodec(Codec codec) {
+        for (int i = 0; i < codecs.size(); i++) {
+            if (codecs.get(i).getMediaType().equalsIgnoreCase(codec.getMediaType())) {
+                codecs.set(i, codec);
+                recompileCodecs();
+                return;
+            }
+        }
+        codecs.add(codec);
+        recompileCodecs();
+    }
+
+    public Codec getCodec() {
+        return codecs.get(0);
+    }
+
+    public List<Codec> getCodecs() {
+        return Collections.unmodifiableList(codecs);
+    }
+
+    private void recompileCodecs() {
+        this.objectCodecs = forAllCodecs(Object.class);
+        this.parameterBinders = new ParameterBinders(codecs);
+        for (Route route : routes) {
+            compileCodecs(route);
+        }
+    }
+
+    /**
+     * One TypeCodec per registered codec, in codec order
+     */
+    private List<TypeCodec<Object>> forAllCodecs(Type type) {
+        List<TypeCodec<Object>> typeCodecs = new ArrayList<>(codecs.size());
+        for (Codec codec : codecs) {
+            typeCodecs.add(codec.forType(type));
+        }
+        return typeCodecs;
+    }
+
+    /**
+     * Choose how controller results are serialized to JSON
+     */
+    public void setJsonWriteMode(JsonWriteMode jsonWriteMode) {
+        this.jsonWriteMode = jsonWriteMode;
+    }
+
+    public JsonWriteMode getJsonWriteMode() {
+        return jsonWriteMode;
+    }
+
+    /**
+     * Send an ETag with every GET response (a hash of the body), not only for @ETag handlers
+     * A matching If-None-Match is answered with 304 Not Modified
+     */
+    public void setAutoETags(boolean autoETags) {
+        this.autoETags = autoETags;
+    }
+
+    public boolean isAutoETags() {
+        return autoETags;
+    }
+
+    /**
+     * Cache of @Cacheable responses: size bound, statistics and invalidation
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * In-flight @SingleFlight requests and how many were collapsed into another one
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
 
     public void registerController(Object controller) {
         Class<?> clazz = controller.getClass();
@@ -52,7 +191,11 @@ public class Router {
             try {
                 String path = (String) annotation.getMethod("value").invoke(method.getAnnotation(annotation));
                 String fullPath = normalizePath(basePath + path);
-                routes.add(new Route(httpMethod, fullPath, controller, method));
+                Route route = new Route(httpMethod, fullPath, controller, method, invocationStrategy);
+                compileCodecs(route);
+                compileMiddlewares(route);
+                routes.add(route);
+                indexRoute(route);
                 System.out.println("  [ROUTE] " + httpMethod + " " + fullPath + " -> " +
                         controller.getClass().getSimpleName() + "." + method.getName() + "()");
             } catch (Exception e) {
@@ -61,97 +204,263 @@ public class Router {
         }
     }
 
-    private String normalizePath(String path) {
-        if (!path.startsWith("/")) path = "/" + path;
-        return path.replaceAll("/+", "/");
+    /**
+     * Resolve the body parameter and return type codecs once, instead of on every request
+     */
+    private void compileCodecs(Route route) {
+        Method method = route.getHandlerMethod();
+        route.setParameterBinders(parameterBinders.forMethod(method));
+
+        Class<?> returnType = method.getReturnType();
+        boolean encoded = returnType != void.class && returnType != HttpResponse.class && returnType != String.class
+                && returnType != byte[].class && returnType != ByteBuffer.class;
+        route.setResponseCodecs(encoded ? forAllCodecs(method.getGenericReturnType()) : null);
     }
 
-    public HttpResponse handleRequest(HttpRequest request) {
-        for (Route route : routes) {
-            if (route.matches(request.getMethod(), request.getPath())) {
-                try {
-                    Map<String, String> pathParams = route.extractPathParams(request.getPath());
-                    request = new HttpRequest(request.getMethod(), request.getPath(), pathParams,
-                            request.getQueryParams(), request.getBody(), request.getHeaders());
+    /**
+     * Resolve the route's middlewares to shared instances, created once through the DIContainer
+     */
+    private void compileMiddlewares(Route route) {
+        List<MiddlewareHandler> classChain = new ArrayList<>();
+        for (Class<? extends MiddlewareHandler> middlewareClass : route.getClassMiddlewares()) {
+            classChain.add(container.getInstance(middlewareClass));
+        }
 
-                    // Execute class-level middlewares
-                    HttpResponse middlewareResponse = executeMiddlewares(route.getClassMiddlewares(), request);
-                    if (middlewareResponse != null) {
-                        return middlewareResponse;
-                    }
+        List<MiddlewareHandler> chain = new ArrayList<>(classChain);
+        for (Class<? extends MiddlewareHandler> middlewareClass : route.getMethodMiddlewares()) {
+            chain.add(container.getInstance(middlewareClass));
+        }
 
-                    // Execute method-level middlewares
-                    middlewareResponse = executeMiddlewares(route.getMethodMiddlewares(), request);
-                    if (middlewareResponse != null) {
-                        return middlewareResponse;
-                    }
+        route.setMiddlewareChains(classChain.toArray(new MiddlewareHandler[0]), chain.toArray(new MiddlewareHandler[0]));
+    }
 
-                    // Execute controller method
-                    Object result = invokeHandler(route, request);
+    /**
+     * Add a route to the lookup index of its HTTP method
+     * Routes the tree cannot represent keep the regex match as a fallback
+     */
+    private void indexRoute(Route route) {
+        if (!RouteTree.supports(route.getPath())) {
+            patternRoutes.add(route);
+            return;
+        }
 
-                    // Check if result is already an HttpResponse
-                    if (result instanceof HttpResponse) {
-                        HttpResponse response = (HttpResponse) result;
+        String httpMethod = route.getMethod().toUpperCase();
+        RouteTree tree = routeTrees.computeIfAbsent(httpMethod, key -> new RouteTree());
+        if (!tree.insert(route)) {
+            System.err.println("  [ROUTE] ⚠️  Duplicate route ignored: " + route.getMethod() + " " + route.getPath());
+            return;
+        }
+
+        // Routes without {var} placeholders also resolve through a plain hash lookup
+        if (route.getPathVariables().isEmpty()) {
+            staticRoutes.computeIfAbsent(httpMethod, key -> new HashMap<>()).put(route.getPath(), route);
+        }
+    }
 
-                        // Apply @ResponseStatus if present and status not already set
-                        Method handlerMethod = route.getHandlerMethod();
-                        if (handlerMethod.isAnnotationPresent(ResponseStatus.class) && response.getStatusCode() == 200) {
-                            ResponseStatus responseStatus = handlerMethod.getAnnotation(ResponseStatus.class);
-                            response.status(responseStatus.value().getCode());
-                        }
+    private Route findStaticRoute(String httpMethod, String path) {
+        Map<String, Route> methodRoutes = staticRoutes.get(httpMethod.toUpperCase());
+        return methodRoutes != null ? methodRoutes.get(path) : null;
+    }
 
-                        return response;
-                    }
+    private RouteTree.Match findRoute(String httpMethod, String path) {
+        RouteTree tree = routeTrees.get(httpMethod.toUpperCase());
+        if (tree != null) {
+            RouteTree.Match match = tree.find(path);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
 
-                    // Otherwise, create response from result
-                    HttpResponse response = createResponse(result);
+    private Route findPatternRoute(String httpMethod, String path) {
+        for (Route route : patternRoutes) {
+            if (route.matches(httpMethod, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
 
-                    // Apply @ResponseStatus annotation
-                    Method handlerMethod = route.getHandlerMethod();
-                    if (handlerMethod.isAnnotationPresent(ResponseStatus.class)) {
-                        ResponseStatus responseStatus = handlerMethod.getAnnotation(ResponseStatus.class);
-                        response.status(responseStatus.value().getCode());
-                    }
+    private String normalizePath(String path) {
+        if (!path.startsWith("/")) path = "/" + path;
+        return path.replaceAll("/+", "/");
+    }
 
-                    return response;
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    return new HttpResponse()
-                            .status(500)
-                            .body("{\"error\": \"" + e.getMessage() + "\"}");
+    public HttpResponse handleRequest(HttpRequest request) {
+        Route route = findStaticRoute(request.getMethod(), request.getPath());
+        Map<String, String> pathParams = new HashMap<>();
+
+        if (route == null) {
+            RouteTree.Match match = findRoute(request.getMethod(), request.getPath());
+            if (match != null) {
+                route = match.getRoute();
+                pathParams = match.getPathParams();
+            } else {
+                route = findPatternRoute(request.getMethod(), request.getPath());
+                if (route != null) {
+                    pathParams = route.extractPathParams(request.getPath());
                 }
             }
         }
 
+        if (route != null) {
+            request = request.withPathParams(pathParams);
+            return dispatch(route, request);
+        }
+
         // Handle OPTIONS requests for CORS preflight (catch-all for routes with middlewares)
         if ("OPTIONS".equals(request.getMethod())) {
             // Try to find matching route with any method to execute middlewares
-            for (Route route : routes) {
-                String tempPath = request.getPath();
+            List<Route> candidates = new ArrayList<>();
+            for (RouteTree tree : routeTrees.values()) {
+                RouteTree.Match candidate = tree.find(request.getPath());
+                if (candidate != null) {
+                    candidates.add(candidate.getRoute());
+                }
+            }
+            for (Route patternRoute : patternRoutes) {
                 // Check if path pattern matches (ignoring method)
-                if (route.getPattern().matcher(tempPath).matches()) {
-                    try {
-                        // Execute middlewares for CORS handling
-                        HttpResponse middlewareResponse = executeMiddlewares(route.getClassMiddlewares(), request);
-                        if (middlewareResponse != null) {
-                            return middlewareResponse;
-                        }
-                    } catch (Exception e) {
-                        // Continue to next route
+                if (patternRoute.getPattern().matcher(request.getPath()).matches()) {
+                    candidates.add(patternRoute);
+                }
+            }
+
+            for (Route candidate : candidates) {
+                try {
+                    // Execute middlewares for CORS handling
+                    HttpResponse middlewareResponse = executeMiddlewares(candidate.getClassMiddlewareChain(), request);
+                    if (middlewareResponse != null) {
+                        return middlewareResponse;
                     }
+                } catch (Exception e) {
+                    // Continue to next route
                 }
             }
         }
 
         return new HttpResponse()
                 .status(404)
-                .body("{\"error\": \"Not Found\"}");
+                .body(NOT_FOUND_BODY);
+    }
+
+    private HttpResponse dispatch(Route route, HttpRequest request) {
+        try {
+            // Execute class-level then method-level middlewares
+            HttpResponse middlewareResponse = executeMiddlewares(route.getMiddlewareChain(), request);
+            if (middlewareResponse != null) {
+                return middlewareResponse;
+            }
+
+            boolean get = "GET".equalsIgnoreCase(request.getMethod());
+
+            // Cached response: no binding, no handler call, no serialization
+            CachePolicy cachePolicy = get ? route.getCachePolicy() : null;
+            String cacheKey = cachePolicy != null ? cachePolicy.getKey().build(request, negotiatedVariant(route, request)) : null;
+            if (cacheKey != null) {
+                HttpResponse cached = responseCache.get(cacheKey);
+                if (cached != null) {
+                    return checkNotModified(route, request, cached);
+                }
+            }
+
+            // Identical request already running: wait for its response instead of calling the handler again
+            if (get && route.isSingleFlight()) {
+                RequestCoalescer.Flight flight = requestCoalescer.join(
+                        route.getSingleFlightKey().build(request, negotiatedVariant(route, request)));
+                if (!flight.isLeader()) {
+                    HttpResponse shared = flight.await();
+                    if (shared != null) {
+                        return checkNotModified(route, request, shared);
+                    }
+                    return handle(route, request, get, cacheKey, null); // Nothing to share: run it alone
+                }
+                try {
+                    return handle(route, request, get, cacheKey, flight);
+                } finally {
+                    flight.finish();
+                }
+            }
+
+            return handle(route, request, get, cacheKey, null);
+        } catch (Exception e) {
+            PayloadTooLargeException tooLarge = findCause(e, PayloadTooLargeException.class);
+            if (tooLarge != null) {
+                return new HttpResponse()
+                        .status(HttpStatus.PAYLOAD_TOO_LARGE.getCode())
+                        .body("{\"error\": \"" + tooLarge.getMessage() + "\"}");
+            }
+            e.printStackTrace();
+            return new HttpResponse()
+                    .status(500)
+                    .body("{\"error\": \"" + e.getMessage() + "\"}");
+        }
+    }
+
+    /**
+     * Bind, call the handler and encode its result
+     * @param flight the coalesced requests waiting for this response, or null
+     */
+    private HttpResponse handle(Route route, HttpRequest request, boolean get, String cacheKey,
+                                RequestCoalescer.Flight flight) throws Exception {
+        Object[] args = bindArguments(route, request);
+
+        // Versioned resource: a matching If-None-Match skips the handler and serialization
+        // Cached responses always get an ETag, computed once when they are stored
+        boolean conditional = (route.hasETag() || autoETags || cacheKey != null) && get;
+        String versionTag = conditional ? versionTag(route, request, args) : null;
+        String matchedTag = versionTag != null ? ETags.match(request.getHeader("If-None-Match"), versionTag) : null;
+        if (matchedTag != null) {
+            return notModified(route, new HttpResponse().header("ETag", matchedTag));
+        }
+
+        // Execute controller method
+        Object result = route.getInvoker().invoke(args);
+
+        // Check if result is already an HttpResponse
+        if (result instanceof HttpResponse) {
+            HttpResponse response = (HttpResponse) result;
+
+            // Apply @ResponseStatus if present and status not already set
+            Method handlerMethod = route.getHandlerMethod();
+            if (handlerMethod.isAnnotationPresent(ResponseStatus.class) && response.getStatusCode() == 200) {
+                ResponseStatus responseStatus = handlerMethod.getAnnotation(ResponseStatus.class);
+                response.status(responseStatus.value().getCode());
+            }
+
+            return complete(route, request, response, conditional, versionTag, cacheKey, flight);
+        }
+
+        // Otherwise, create response from result
+        // (buffered when it is cached, shared or its ETag is a hash of the body)
+        HttpResponse response = createResponse(route, request, result,
+                (conditional && versionTag == null) || cacheKey != null || flight != null);
+
+        // Apply @ResponseStatus annotation
+        Method handlerMethod = route.getHandlerMethod();
+        if (handlerMethod.isAnnotationPresent(ResponseStatus.class)) {
+            ResponseStatus responseStatus = handlerMethod.getAnnotation(ResponseStatus.class);
+            response.status(responseStatus.value().getCode());
+        }
+
+        return complete(route, request, response, conditional, versionTag, cacheKey, flight);
+    }
+
+    /**
+     * Exceptions from body reading arrive wrapped (UncheckedIOException, JsonIOException)
+     */
+    private static <T extends Throwable> T findCause(Throwable e, Class<T> type) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
     }
 
-    private HttpResponse executeMiddlewares(List<Class<? extends MiddlewareHandler>> middlewareClasses, HttpRequest request) {
-        for (Class<? extends MiddlewareHandler> middlewareClass : middlewareClasses) {
+    private HttpResponse executeMiddlewares(MiddlewareHandler[] middlewares, HttpRequest request) {
+        for (MiddlewareHandler middleware : middlewares) {
             try {
-                MiddlewareHandler middleware = middlewareClass.getDeclaredConstructor().newInstance();
                 HttpResponse response = middleware.handle(request);
 
                 if (response != null) {
@@ -167,58 +476,109 @@ public class Router {
         return null; // Continue to next middleware/controller
     }
 
-    private Object invokeHandler(Route route, HttpRequest request) throws Exception {
-        Method method = route.getHandlerMethod();
-        method.setAccessible(true);
-        Parameter[] params = method.getParameters();
-        Object[] args = new Object[params.length];
+    private Object[] bindArguments(Route route, HttpRequest request) throws Exception {
+        ParameterBinder[] binders = route.getParameterBinders();
+        Object[] args = new Object[binders.length];
 
         ParameterContext context = new ParameterContext(request);
 
-        for (int i = 0; i < params.length; i++) {
-            // Try built-in parameter annotations first
-            if (params[i].isAnnotationPresent(Path.class)) {
-                String paramName = params[i].getAnnotation(Path.class).value();
-                String value = request.getPathParams().get(paramName);
-                args[i] = convertParameter(value, params[i].getType());
-            } else if (params[i].isAnnotationPresent(Body.class)) {
-                args[i] = gson.fromJson(request.getBody(), params[i].getType());
-            } else if (params[i].isAnnotationPresent(Query.class)) {
-                String paramName = params[i].getAnnotation(Query.class).value();
-                String value = request.getQueryParams().get(paramName);
-                args[i] = convertParameter(value, params[i].getType());
-            } else {
-                // Try custom parameter handlers from plugins
-                boolean handled = false;
-                for (ParameterAnnotationHandler handler : AnnotationHandlerRegistry.getInstance().getParameterHandlers()) {
-                    if (handler.canHandle(params[i])) {
-                        args[i] = handler.resolveParameter(params[i], context);
-                        handled = true;
-                        break;
-                    }
-                }
+        for (int i = 0; i < binders.length; i++) {
+            args[i] = binders[i].bind(request, context);
+        }
 
-                // If not handled, leave as null
-                if (!handled) {
-                    args[i] = null;
-                }
+        return args;
+    }
+
+    /**
+     * ETag from the route's @ETag version method, per negotiated codec
+     * @return the tag, or null when the route has no version method or it returned null
+     */
+    private String versionTag(Route route, HttpRequest request, Object[] args) throws Exception {
+        HandlerInvoker versionInvoker = route.getVersionInvoker();
+        if (versionInvoker == null) {
+            return null;
+        }
+        Object version = versionInvoker.invoke(route.isVersionWithArguments() ? args : new Object[0]);
+        if (version == null) {
+            return null;
+        }
+
+        String tag = ETags.forVersion(version);
+        int index = route.getResponseCodecs() != null ? CodecNegotiation.forAccept(codecs, request.getHeader("Accept")) : 0;
+        if (index > 0) {
+            // Same version, different representation (e.g. CBOR): its own validator
+            String mediaType = codecs.get(index).getMediaType();
+            tag = ETags.variant(tag, mediaType.substring(mediaType.indexOf('/') + 1));
+        }
+        return tag;
+    }
+
+    /**
+     * Media type the response is negotiated to, when the route's results can be encoded more than one way
+     */
+    private String negotiatedVariant(Route route, HttpRequest request) {
+        if (route.getResponseCodecs() == null || codecs.size() == 1) {
+            return null;
+        }
+        return codecs.get(CodecNegotiation.forAccept(codecs, request.getHeader("Accept"))).getMediaType();
+    }
+
+    /**
+     * ETag, cache and share a GET response, then answer 304 if the client already has it
+     */
+    private HttpResponse complete(Route route, HttpRequest request, HttpResponse response,
+                                  boolean conditional, String versionTag, String cacheKey,
+                                  RequestCoalescer.Flight flight) {
+        if (conditional) {
+            setETag(response, versionTag);
+            if (cacheKey != null) {
+                responseCache.put(cacheKey, route, response, route.getCachePolicy().getTtlNanos());
             }
         }
+        if (flight != null) {
+            flight.share(response); // Before the 304: the waiting clients need the full response
+        }
+        return conditional ? checkNotModified(route, request, response) : response;
+    }
 
-        return method.invoke(route.getController(), args);
+    /**
+     * Set the ETag of a successful response: the controller's, the version tag, or a hash of the body
+     */
+    private static void setETag(HttpResponse response, String versionTag) {
+        if (response.getStatusCode() != 200 || response.getHeaders().containsKey("ETag")) {
+            return;
+        }
+
+        String etag = versionTag;
+        if (etag == null) {
+            ByteBuffer body = response.getBodyBuffer();
+            if (body == null) {
+                return; // Streamed: the body is not known before the headers are sent
+            }
+            etag = ETags.forBody(body);
+            response.body(body); // Text bodies are not encoded again when sent
+        }
+        response.header("ETag", etag);
     }
 
+    private HttpResponse checkNotModified(Route route, HttpRequest request, HttpResponse response) {
+        String matchedTag = ETags.match(request.getHeader("If-None-Match"), response.getHeaders().get("ETag"));
+        if (matchedTag == null || response.getStatusCode() != 200) {
+            return response;
+        }
+        HttpResponse notModified = new HttpResponse().contentType(response.getContentType());
+        response.getHeaders().forEach(notModified::header);
+        return notModified(route, notModified.header("ETag", matchedTag));
+    }
 
-    private Object convertParameter(String value, Class<?> type) {
-        if (value == null) return null;
-        if (type == String.class) return value;
-        if (type == Long.class || type == long.class) return Long.parseLong(value);
-        if (type == Integer.class || type == int.class) return Integer.parseInt(value);
-        if (type == Boolean.class || type == boolean.class) return Boolean.parseBoolean(value);
-        return value;
+    private HttpResponse notModified(Route route, HttpResponse response) {
+        if (route.getResponseCodecs() != null && codecs.size() > 1) {
+            response.header("Vary", "Accept");
+        }
+        return response.status(HttpStatus.NOT_MODIFIED.getCode());
     }
 
-    private HttpResponse createResponse(Object result) {
+    private HttpResponse createResponse(Route route, HttpRequest request, Object result, boolean buffered) {
         // Se já é HttpResponse, retorna direto
         if (result instanceof HttpResponse) {
             return (HttpResponse) result;
@@ -229,17 +589,44 @@ public class Router {
             return new HttpResponse().status(204);
         }
 
-        // Para qualquer outro tipo, serializa para JSON e coloca no body
-        String jsonBody;
+        // Bytes já codificados são enviados sem conversão
+        if (result instanceof byte[]) {
+            return new HttpResponse()
+                    .contentType("application/octet-stream")
+                    .body((byte[]) result);
+        }
+        if (result instanceof ByteBuffer) {
+            return new HttpResponse()
+                    .contentType("application/octet-stream")
+                    .body((ByteBuffer) result);
+        }
+
         if (result instanceof String) {
-            jsonBody = (String) result;
-        } else {
-            jsonBody = gson.toJson(result);
+            return new HttpResponse()
+                    .contentType("application/json")
+                    .body((String) result);
         }
 
-        return new HttpResponse()
-                .contentType("application/json")
-                .body(jsonBody);
+        // Codec escolhido pelo header Accept (JSON quando nenhum outro é pedido)
+        int index = CodecNegotiation.forAccept(codecs, request.getHeader("Accept"));
+        String mediaType = codecs.get(index).getMediaType();
+
+        // Codec resolvido no registro da rota (Object quando o tipo declarado não é codificado)
+        List<TypeCodec<Object>> responseCodecs = route.getResponseCodecs() != null ? route.getResponseCodecs() : objectCodecs;
+        TypeCodec<Object> typeCodec = responseCodecs.get(index);
+
+        HttpResponse response = new HttpResponse().contentType(mediaType);
+        if (codecs.size() > 1) {
+            response.header("Vary", "Accept");
+        }
+
+        // Serializa direto no OutputStream da resposta, sem cópia intermediária
+        if (jsonWriteMode == JsonWriteMode.STREAMING && !buffered) {
+            return response.stream(out -> typeCodec.encode(result, out), JSON_STREAM_BUFFER_SIZE);
+        }
+
+        // Para qualquer outro tipo, serializa com o codec e coloca no body
+        return response.body(typeCodec.encode(result));
     }
 
     public List<Route> getRoutes() {
@@ -0,0 +1,223 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import com.vcinsidedigital.webcore.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the request executor
+ *
+ * At most maxInFlight requests run at once and at most maxQueued wait for a slot.
+ * Past that, the request is shed: it runs on a small pool of its own with isShedding() set,
+ * and the filter installed on every context answers 503 before any handler runs.
+ */
+public class AdmissionController implements Executor {
+    private static final ThreadLocal<Boolean> SHEDDING = ThreadLocal.withInitial(() -> false);
+    private static final int SHED_THREADS = 16;
+
+    private final Executor delegate;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final int retryAfterSeconds;
+    // The JDK server's task still reads the request head: on the dispatcher thread, one slow client
+    // would stall every connection. Platform threads, since that read pins a virtual thread's carrier
+    private final ThreadPoolExecutor shedExecutor;
+
+    private final Object lock = new Object();
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private int inFlight = 0;
+
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder shedCount = new LongAdder();
+
+    public AdmissionController(Executor delegate, int maxInFlight, int maxQueued, int retryAfterSeconds) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Admission control needs a worker executor");
+        }
+        if (maxInFlight < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Invalid admission limits: maxInFlight=" + maxInFlight +
+                    ", maxQueued=" + maxQueued);
+        }
+        this.delegate = delegate;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.shedExecutor = new ThreadPoolExecutor(SHED_THREADS, SHED_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), ServerExecutors.namedThreads("webcore-shed-"));
+        this.shedExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Check if the current request was shed and must be answered with 503
+     */
+    public static boolean isShedding() {
+        return SHEDDING.get();
+    }
+
+    /**
+     * Filter answering shed requests with 503 + Retry-After, so no handler does work for them
+     * HttpServerEngine adds it to every context; a plugin running its own HttpServer adds it to each of its contexts
+     */
+    public Filter getSheddingFilter() {
+        return sheddingFilter;
+    }
+
+    private final Filter sheddingFilter = new Filter() {
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            if (!isShedding()) {
+                chain.doFilter(exchange);
+                return;
+            }
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+            ExchangeCodec.sendErrorResponse(exchange, HttpStatus.SERVICE_UNAVAILABLE.getCode(),
+                    HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        }
+
+        @Override
+        public String description() {
+            return "Admission control: 503 for shed requests";
+        }
+    };
+
+    @Override
+    public void execute(Runnable task) {
+        boolean admitted;
+        synchronized (lock) {
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                admitted = true;
+            } else if (queue.size() < maxQueued) {
+                queue.add(task);
+                queuedCount.increment();
+                return;
+            } else {
+                admitted = false;
+            }
+        }
+
+        if (admitted) {
+            try {
+                delegate.execute(() -> runFrom(task));
+                acceptedCount.increment();
+                return;
+            } catch (RejectedExecutionException e) {
+                synchronized (lock) {
+                    inFlight--;
+                }
+            }
+        }
+
+        shedCount.increment();
+        shed(task);
+    }
+
+    /**
+     * Shed a request: run it on the shed pool so the shedding filter can reply 503
+     */
+    private void shed(Runnable task) {
+        shedExecutor.execute(() -> {
+            SHEDDING.set(true);
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                SHEDDING.set(false);
+            }
+        });
+    }
+
+    /**
+     * Run a task, then keep draining queued tasks on the same worker while there are any
+     */
+    private void runFrom(Runnable first) {
+        Runnable task = first;
+        try {
+            while (task != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+
+                synchronized (lock) {
+                    task = queue.poll();
+                    if (task == null) {
+                        inFlight--;
+                    } else {
+                        acceptedCount.increment();
+                    }
+                }
+            }
+        } finally {
+            if (task != null) {
+                // An Error escaped the task: free its slot and hand the queue to another worker
+                release();
+            }
+        }
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (lock) {
+            next = queue.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+            acceptedCount.increment();
+        }
+        try {
+            delegate.execute(() -> runFrom(next));
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                inFlight--;
+            }
+            shedCount.increment();
+            shed(next);
+        }
+    }
+
+    public int getRetryAfterSeconds() { return retryAfterSeconds; }
+    public int getMaxInFlight() { return maxInFlight; }
+    public int getMaxQueued() { return maxQueued; }
+
+    /**
+     * Requests that started running (directly or after waiting in the queue)
+     */
+    public long getAcceptedCount() { return acceptedCount.sum(); }
+
+    /**
+     * Requests that had to wait for a free slot
+     */
+    public long getQueuedCount() { return queuedCount.sum(); }
+
+    /**
+     * Requests rejected with 503 because the queue was full
+     */
+    public long getShedCount() { return shedCount.sum(); }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+}
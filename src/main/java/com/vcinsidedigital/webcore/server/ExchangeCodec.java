@@ -0,0 +1,295 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.vcinsidedigital.webcore.http.HttpRequest;
+import com.vcinsidedigital.webcore.http.HttpResponse;
+import com.vcinsidedigital.webcore.http.HttpStatus;
+import com.vcinsidedigital.webcore.http.RequestBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts between HttpExchange and the framework's HttpRequest/HttpResponse
+ * Shared by every engine, so changes to the request codec apply to all deployments
+ */
+public final class ExchangeCodec {
+
+    // Error bodies sent by the server itself, encoded once
+    private static final Map<String, byte[]> ENCODED_ERRORS = Map.of(
+            HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(), encodeError(HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase()),
+            HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(), encodeError(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase()),
+            HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase(), encodeError(HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase())
+    );
+
+    private ExchangeCodec() {}
+
+    private static byte[] encodeError(String message) {
+        return ("{\"error\": \"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static HttpRequest parseRequest(HttpExchange exchange) throws IOException {
+        return parseRequest(exchange, -1);
+    }
+
+    /**
+     * @param maxBodySize reading more body bytes fails with PayloadTooLargeException (negative: no limit)
+     */
+    public static HttpRequest parseRequest(HttpExchange exchange, long maxBodySize) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+
+        Map<String, String> queryParams = parseQueryParams(exchange.getRequestURI().getQuery());
+
+        // Read (and decoded) only when the handler asks for the body
+        RequestBody body = null;
+        if ("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method)) {
+            body = RequestBody.of(exchange.getRequestBody(), maxBodySize);
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        exchange.getRequestHeaders().forEach((key, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(key, values.get(0));
+            }
+        });
+
+        return new HttpRequest(method, path, new HashMap<>(), queryParams, body, headers);
+    }
+
+    /**
+     * Whether the declared Content-Length is over the limit, so the body need not be read at all
+     * Bodies without a length (chunked) are checked while they are read
+     */
+    public static boolean exceedsMaxBodySize(HttpExchange exchange, long maxBodySize) {
+        if (maxBodySize < 0) {
+            return false;
+        }
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength.trim()) > maxBodySize;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static Map<String, String> parseQueryParams(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query != null && !query.isEmpty()) {
+            for (String param : query.split("&")) {
+                String[] pair = param.split("=", 2);
+                if (pair.length == 2) {
+                    params.put(pair[0], pair[1]);
+                }
+            }
+        }
+        return params;
+    }
+
+    public static void sendResponse(HttpExchange exchange, HttpResponse response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", response.getContentType());
+        response.getHeaders().forEach((key, value) ->
+                exchange.getResponseHeaders().set(key, value));
+
+        // Compression configured through ServerCustomizer (plugin or --compression)
+        ResponseCompression compression = ServerCustomizer.getInstance().getCompression();
+        String encoding = compression != null && hasBody(response.getStatusCode())
+                ? compression.negotiate(exchange, response.getContentType())
+                : null;
+
+        if (response.isStreaming()) {
+            sendStreamingBody(exchange, response, compression, encoding);
+            return;
+        }
+
+        ByteBuffer body = response.getBodyBuffer();
+        int length = body != null ? body.remaining() : 0;
+
+        if (encoding != null && length >= compression.getMinSize()) {
+            ByteBuffer compressed = compress(exchange, compression, body, encoding);
+            if (compressed != null) {
+                body = compressed;
+                length = compressed.remaining();
+            }
+        }
+
+        // -1: no body (0 would select chunked encoding)
+        exchange.sendResponseHeaders(response.getStatusCode(), length > 0 ? length : -1);
+
+        if (length > 0) {
+            OutputStream os = exchange.getResponseBody();
+            write(os, body);
+            os.close();
+        }
+
+        exchange.close();
+    }
+
+    /**
+     * Write a buffer's remaining bytes, straight from the backing array when there is one
+     */
+    private static void write(OutputStream os, ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        // Read-only or direct buffers have no accessible array: copy through a small chunk
+        ByteBuffer source = buffer.duplicate();
+        byte[] chunk = new byte[Math.min(source.remaining(), 8192)];
+        while (source.hasRemaining()) {
+            int count = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, count);
+            os.write(chunk, 0, count);
+        }
+    }
+
+    /**
+     * Length 0 selects chunked transfer encoding; the writer's output goes out as it is produced
+     * (after the response's stream buffer, if any, has filled up)
+     * A failing writer leaves the exchange open: the server then drops the connection instead of
+     * terminating the chunked body, so the client can tell the response is incomplete
+     */
+    private static void sendStreamingBody(HttpExchange exchange, HttpResponse response,
+                                          ResponseCompression compression, String encoding) throws IOException {
+        if (encoding != null) {
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("Content-Encoding", encoding);
+            String etag = headers.getFirst("ETag");
+            if (etag != null) {
+                // One validator per representation, as for buffered bodies
+                headers.set("ETag", ResponseCompression.variantTag(etag, encoding));
+            }
+        }
+
+        OutputStream os;
+        if (response.getStreamBufferSize() > 0) {
+            os = new BufferedBodyStream(exchange, response.getStatusCode(), response.getStreamBufferSize());
+        } else {
+            exchange.sendResponseHeaders(response.getStatusCode(), 0);
+            os = exchange.getResponseBody();
+        }
+
+        if (encoding != null) {
+            // Closing the compressor writes the trailer but leaves the exchange stream open
+            OutputStream compressor = compression.wrap(os, encoding);
+            response.getBodyWriter().writeTo(compressor);
+            compressor.close();
+        } else {
+            response.getBodyWriter().writeTo(os);
+        }
+        os.close();
+        exchange.close();
+    }
+
+    /**
+     * Compress a body and set Content-Encoding
+     * Bodies with an ETag reuse the cached variant and get a per-encoding ETag
+     * @return the compressed body, or null when compressing does not make it smaller
+     */
+    private static ByteBuffer compress(HttpExchange exchange, ResponseCompression compression,
+                                       ByteBuffer body, String encoding) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        String etag = headers.getFirst("ETag");
+        String cacheKey = etag != null ? ResponseCompression.variantKey(exchange, etag) : null;
+
+        byte[] compressed = compression.compress(body, encoding, cacheKey);
+        if (compressed.length >= body.remaining()) {
+            return null;
+        }
+
+        headers.set("Content-Encoding", encoding);
+        if (etag != null) {
+            headers.set("ETag", ResponseCompression.variantTag(etag, encoding));
+        }
+        return ByteBuffer.wrap(compressed);
+    }
+
+    private static boolean hasBody(int status) {
+        return status >= 200 && status != 204 && status != 304;
+    }
+
+    public static void sendErrorResponse(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] bytes = ENCODED_ERRORS.get(message);
+        if (bytes == null) {
+            bytes = encodeError(message);
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.getResponseHeaders().remove("Content-Encoding"); // Set by a response that failed before sending
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        OutputStream os = exchange.getResponseBody();
+        os.write(bytes);
+        os.close();
+        exchange.close();
+    }
+
+    /**
+     * Holds the start of a streamed body; sends headers with the exact length if the body
+     * ends within the buffer, or switches to chunked encoding when it overflows
+     */
+    private static final class BufferedBodyStream extends OutputStream {
+        private final HttpExchange exchange;
+        private final int status;
+        private byte[] buffer;
+        private int count;
+        private OutputStream out;
+
+        BufferedBodyStream(HttpExchange exchange, int status, int bufferSize) {
+            this.exchange = exchange;
+            this.status = status;
+            this.buffer = new byte[bufferSize];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null) {
+                if (count + len <= buffer.length) {
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+                commit(0);
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out == null) {
+                // -1: no body (0 would select chunked encoding)
+                commit(count > 0 ? count : -1);
+            }
+            out.close();
+        }
+
+        private void commit(long length) throws IOException {
+            exchange.sendResponseHeaders(status, length);
+            out = exchange.getResponseBody();
+            if (count > 0) {
+                out.write(buffer, 0, count);
+            }
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.vcinsidedigital.webcore.server;
+
+/**
+ * Threading model used to run request handlers
+ */
+public enum ExecutorType {
+    /**
+     * Fixed pool of platform threads, sized by --threads (default)
+     */
+    PLATFORM,
+
+    /**
+     * One virtual thread per request
+     */
+    VIRTUAL,
+
+    /**
+     * Run handlers on the server dispatcher thread (previous behavior, one request at a time)
+     */
+    DIRECT;
+
+    /**
+     * Parse an executor type from command line args (e.g. "platform", "virtual")
+     */
+    public static ExecutorType fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
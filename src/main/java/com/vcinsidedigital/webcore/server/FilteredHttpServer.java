@@ -0,0 +1,78 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
+
+/**
+ * HttpServer that adds a filter to every context created on it, including the ones gateways create
+ */
+final class FilteredHttpServer extends HttpServer {
+    private final HttpServer delegate;
+    private final Filter filter;
+
+    FilteredHttpServer(HttpServer delegate, Filter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        return withFilter(delegate.createContext(path, handler));
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        return withFilter(delegate.createContext(path));
+    }
+
+    private HttpContext withFilter(HttpContext context) {
+        context.getFilters().add(0, filter); // First, so other filters do no work for shed requests
+        return context;
+    }
+
+    @Override
+    public void bind(InetSocketAddress address, int backlog) throws IOException {
+        delegate.bind(address, backlog);
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        delegate.setExecutor(executor);
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return delegate.getExecutor();
+    }
+
+    @Override
+    public void stop(int delay) {
+        delegate.stop(delay);
+    }
+
+    @Override
+    public void removeContext(String path) {
+        delegate.removeContext(path);
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        delegate.removeContext(context);
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return delegate.getAddress();
+    }
+}
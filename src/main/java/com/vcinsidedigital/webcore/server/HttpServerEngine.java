@@ -0,0 +1,153 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vcinsidedigital.webcore.http.HttpRequest;
+import com.vcinsidedigital.webcore.http.HttpResponse;
+import com.vcinsidedigital.webcore.http.HttpStatus;
+import com.vcinsidedigital.webcore.routing.Router;
+import com.vcinsidedigital.webcore.server.nio.NioHttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Default engine: serves the Router on a com.sun.net.httpserver.HttpServer
+ * (the JDK server or NioHttpServer, per ServerOptions.getEngineType())
+ *
+ * Applies admission control, ServerCustomizer hooks and gateways. Plugins can extend it and
+ * override handle() to decorate responses, or createServer() to supply their own HttpServer.
+ */
+public class HttpServerEngine implements ServerEngine {
+    private HttpServer server;
+    private Router router;
+    private List<Gateway> gateways = List.of();
+    private long maxBodySize = ServerOptions.DEFAULT_MAX_BODY_SIZE;
+    private boolean nio;
+
+    @Override
+    public String getName() {
+        return nio ? "nio" : "jdk";
+    }
+
+    @Override
+    public void start(Router router, ServerOptions options) throws IOException {
+        this.router = router;
+        this.gateways = options.getGateways();
+        this.maxBodySize = options.getMaxBodySize();
+        this.server = createServer(options);
+        this.nio = server instanceof NioHttpServer;
+        if (options.getExecutor() instanceof AdmissionController) {
+            // Shed requests get their 503 from a filter on every context, gateways included
+            this.server = new FilteredHttpServer(server, ((AdmissionController) options.getExecutor()).getSheddingFilter());
+        }
+
+        // Initialize gateways
+        if (!gateways.isEmpty()) {
+            System.out.println("\n🔌 Initializing gateways:");
+            for (Gateway gateway : gateways) {
+                try {
+                    gateway.initialize(server);
+                    System.out.println("  ├─ " + gateway.getName() + " initialized");
+                } catch (Exception e) {
+                    System.err.println("  ├─ ❌ Failed to initialize gateway: " + gateway.getName());
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        server.createContext("/", this::handleExchange);
+        server.setExecutor(options.getExecutor());
+        server.start();
+
+        // Start gateways
+        for (Gateway gateway : gateways) {
+            try {
+                gateway.onStart();
+            } catch (Exception e) {
+                System.err.println("  ├─ ❌ Error starting gateway: " + gateway.getName());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void stop(int delaySeconds) {
+        if (server == null) {
+            return;
+        }
+        server.stop(delaySeconds);
+        for (Gateway gateway : gateways) {
+            try {
+                gateway.onStop();
+            } catch (Exception e) {
+                System.err.println("  ├─ ❌ Error stopping gateway: " + gateway.getName());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Underlying server, for adding contexts after start (null before start())
+     */
+    public HttpServer getHttpServer() {
+        return server;
+    }
+
+    /**
+     * Create and bind the HttpServer
+     */
+    protected HttpServer createServer(ServerOptions options) throws IOException {
+        InetSocketAddress address = options.getHost() != null
+                ? new InetSocketAddress(options.getHost(), options.getPort())
+                : new InetSocketAddress(options.getPort());
+        if (options.getEngineType() == ServerEngineType.NIO) {
+            System.out.println("  ├─ Engine: nio");
+            NioHttpServer server = new NioHttpServer(address, options.getBacklog());
+            if (options.getMaxBodySize() >= 0) {
+                server.setMaxRequestBodySize(options.getMaxBodySize()); // Rejected before it is buffered
+            }
+            return server;
+        }
+        return HttpServer.create(address, options.getBacklog());
+    }
+
+    /**
+     * Route a parsed request
+     * Override to decorate every response (e.g. CORS headers)
+     */
+    protected HttpResponse handle(HttpRequest request) throws Exception {
+        return router.handleRequest(request);
+    }
+
+    protected void handleExchange(HttpExchange exchange) throws IOException {
+        if (ExchangeCodec.exceedsMaxBodySize(exchange, maxBodySize)) {
+            ExchangeCodec.sendErrorResponse(exchange, HttpStatus.PAYLOAD_TOO_LARGE.getCode(),
+                    HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase());
+            return;
+        }
+
+        try {
+            // Custom request parsing
+            HttpRequest request = ServerCustomizer.getInstance().customizeRequest(exchange);
+            if (request == null) {
+                request = ExchangeCodec.parseRequest(exchange, maxBodySize); // Use default
+            }
+
+            HttpResponse response = handle(request);
+
+            // Custom response handling
+            ServerCustomizer.getInstance().customizeResponse(response, exchange);
+
+            ExchangeCodec.sendResponse(exchange, response);
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (exchange.getResponseCode() != -1) {
+                // Headers already sent (streamed body): let the server drop the connection
+                throw e instanceof IOException ? (IOException) e : new IOException(e);
+            }
+            ExchangeCodec.sendErrorResponse(exchange, 500, "Internal Server Error");
+        }
+    }
+}
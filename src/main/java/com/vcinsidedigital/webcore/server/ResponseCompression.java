@@ -0,0 +1,353 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.vcinsidedigital.webcore.http.ETags;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip / deflate response compression, negotiated with Accept-Encoding
+ *
+ * Only bodies of a compressible content type and at least getMinSize() bytes are compressed.
+ * Compressed variants of responses carrying an ETag (static files, cacheable responses) are kept
+ * in an LRU cache bounded by total size, so repeated hits are not compressed again.
+ *
+ * Enabled with --compression or by a plugin's ServerConfiguration.getCompression():
+ * <pre>
+ * public ResponseCompression getCompression() {
+ *     return new ResponseCompression().setMinSize(512);
+ * }
+ * </pre>
+ */
+public class ResponseCompression {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final int DEFAULT_MIN_SIZE = 1024;
+    private static final long DEFAULT_MAX_CACHE_SIZE = 8 * 1024 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final List<String> DEFAULT_MIME_TYPES = List.of(
+            "text/*",
+            "application/json",
+            "application/*+json",
+            "application/javascript",
+            "application/xml",
+            "application/*+xml",
+            "image/svg+xml",
+            "application/wasm"
+    );
+
+    private int minSize = DEFAULT_MIN_SIZE;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private List<String> mimeTypes = DEFAULT_MIME_TYPES;
+
+    private final LinkedHashMap<String, byte[]> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+    private long cachedBytes;
+    private long cacheHits;
+    private long cacheMisses;
+
+    /**
+     * Smaller bodies are sent as they are (default 1024 bytes)
+     */
+    public ResponseCompression setMinSize(int minSize) {
+        this.minSize = minSize;
+        return this;
+    }
+
+    /**
+     * Deflater level, 1 (fastest) to 9 (smallest); default 6
+     */
+    public ResponseCompression setLevel(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9: " + level);
+        }
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * Content types to compress; "text/*" and "application/*+json" style wildcards are allowed
+     */
+    public ResponseCompression setMimeTypes(String... mimeTypes) {
+        List<String> types = new ArrayList<>();
+        for (String type : mimeTypes) {
+            types.add(type.trim().toLowerCase(Locale.ROOT));
+        }
+        this.mimeTypes = List.copyOf(types);
+        return this;
+    }
+
+    /**
+     * Total bytes of compressed variants kept in memory (default 8MB, 0 disables the cache)
+     */
+    public synchronized ResponseCompression setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+        evict();
+        return this;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized long getCacheHits() {
+        return cacheHits;
+    }
+
+    public synchronized long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    // ===== Negotiation =====
+
+    /**
+     * Choose the encoding for a response about to be sent
+     * Adds "Vary: Accept-Encoding" whenever the answer depends on the header.
+     * @return GZIP, DEFLATE, or null to send the body as it is
+     */
+    public String negotiate(HttpExchange exchange, String contentType) {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        if (responseHeaders.containsKey("Content-Encoding") || !isCompressible(contentType)) {
+            return null;
+        }
+        addVary(responseHeaders);
+        return selectEncoding(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    public boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim().toLowerCase(Locale.ROOT);
+        for (String pattern : mimeTypes) {
+            if (matches(pattern, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String pattern, String type) {
+        int star = pattern.indexOf('*');
+        if (star < 0) {
+            return pattern.equals(type);
+        }
+        return type.length() >= pattern.length() - 1
+                && type.startsWith(pattern.substring(0, star))
+                && type.endsWith(pattern.substring(star + 1));
+    }
+
+    /**
+     * Best supported coding in an Accept-Encoding header; gzip wins ties
+     */
+    static String selectEncoding(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+
+        double gzip = -1;
+        double deflate = -1;
+        double wildcard = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            switch (coding) {
+                case GZIP, "x-gzip" -> gzip = Math.max(gzip, q);
+                case DEFLATE -> deflate = Math.max(deflate, q);
+                case "*" -> wildcard = q;
+                default -> { }
+            }
+        }
+
+        // Codings not listed take the "*" weight, if any
+        if (gzip < 0) gzip = wildcard;
+        if (deflate < 0) deflate = wildcard;
+
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        return deflate > 0 ? DEFLATE : null;
+    }
+
+    private static void addVary(Headers headers) {
+        String vary = headers.getFirst("Vary");
+        if (vary == null) {
+            headers.set("Vary", "Accept-Encoding");
+        } else if (!vary.toLowerCase(Locale.ROOT).contains("accept-encoding") && !vary.trim().equals("*")) {
+            headers.set("Vary", vary + ", Accept-Encoding");
+        }
+    }
+
+    /**
+     * ETag of the compressed representation: "abc" becomes "abc-gzip"
+     * Each encoding is a different representation, so caches must not mix their validators
+     */
+    public static String variantTag(String etag, String encoding) {
+        return ETags.variant(etag, encoding);
+    }
+
+    /**
+     * Cache key of a response body: raw path, raw query, content type and ETag
+     * Version ETags are shared by every query of a route (e.g. ?page=1 and ?page=2), so the query is part of it
+     */
+    static String variantKey(HttpExchange exchange, String etag) {
+        String query = exchange.getRequestURI().getRawQuery();
+        return exchange.getRequestURI().getRawPath() + (query != null ? "?" + query : "")
+                + " " + exchange.getResponseHeaders().getFirst("Content-Type") + " " + etag;
+    }
+
+    // ===== Compression =====
+
+    /**
+     * Compress a body, reusing the cached variant for cacheKey when there is one
+     * @param cacheKey identifies the exact content (e.g. path and ETag), or null to skip the cache
+     */
+    public byte[] compress(ByteBuffer body, String encoding, String cacheKey) throws IOException {
+        if (cacheKey == null || maxCacheSize <= 0) {
+            return compress(body, encoding);
+        }
+
+        String key = encoding + " " + cacheKey;
+        synchronized (this) {
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                cacheHits++;
+                return cached;
+            }
+            cacheMisses++;
+        }
+
+        // Compress outside the lock; concurrent misses for one key just compress twice
+        byte[] compressed = compress(body, encoding);
+        if (compressed.length <= maxCacheSize) {
+            synchronized (this) {
+                byte[] previous = cache.put(key, compressed);
+                if (previous != null) {
+                    cachedBytes -= previous.length;
+                }
+                cachedBytes += compressed.length;
+                evict();
+            }
+        }
+        return compressed;
+    }
+
+    private byte[] compress(ByteBuffer body, String encoding) throws IOException {
+        ByteBuffer source = body.duplicate();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, source.remaining() / 4));
+        try (OutputStream compressor = wrap(out, encoding)) {
+            if (source.hasArray()) {
+                compressor.write(source.array(), source.arrayOffset() + source.position(), source.remaining());
+            } else {
+                byte[] chunk = new byte[Math.min(source.remaining(), STREAM_BUFFER_SIZE)];
+                while (source.hasRemaining()) {
+                    int count = Math.min(chunk.length, source.remaining());
+                    source.get(chunk, 0, count);
+                    compressor.write(chunk, 0, count);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Compressing stream for bodies of unknown length
+     * flush() emits everything written so far, so streamed responses still reach the client
+     * as they are produced; close() finishes the encoding without closing out.
+     */
+    public OutputStream wrap(OutputStream out, String encoding) throws IOException {
+        OutputStream target = new NonClosingOutputStream(out);
+        if (GZIP.equals(encoding)) {
+            return new GZIPOutputStream(target, STREAM_BUFFER_SIZE, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(target, deflater, STREAM_BUFFER_SIZE, true) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end(); // Only the default deflater is released by DeflaterOutputStream
+                }
+            }
+        };
+    }
+
+    private void evict() {
+        Iterator<byte[]> eldest = cache.values().iterator();
+        while (cachedBytes > maxCacheSize && eldest.hasNext()) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void clearCache() {
+        cache.clear();
+        cachedBytes = 0;
+    }
+
+    /**
+     * Closing the compressor finishes the encoding; the exchange stream is closed by its owner
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        NonClosingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.vcinsidedigital.webcore.http.HttpRequest;
 import com.vcinsidedigital.webcore.http.HttpResponse;
 import com.sun.net.httpserver.HttpExchange;
 
+import java.util.concurrent.Executor;
+
 /**
  * Allows plugins to customize server configuration
  */
@@ -23,6 +25,21 @@ public interface ServerConfiguration {
         return null;
     }
 
+    /**
+     * Get custom request executor (returns null to use --executor/--threads args)
+     * See ServerExecutors for platform pool and virtual thread factories
+     */
+    default Executor getExecutor() {
+        return null;
+    }
+
+    /**
+     * Get response compression settings (returns null to use --compression args)
+     */
+    default ResponseCompression getCompression() {
+        return null;
+    }
+
     /**
      * Customize the HttpRequest parsing
      * Return null to use default implementation
@@ -5,6 +5,7 @@ import com.vcinsidedigital.webcore.http.HttpResponse;
 import com.sun.net.httpserver.HttpExchange;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Registry for server customizations and gateways
@@ -14,8 +15,10 @@ public class ServerCustomizer {
 
     private ServerConfiguration portConfig = null;
     private ServerConfiguration hostConfig = null;
+    private Executor customExecutor = null;
     private ServerConfiguration requestConfig = null;
     private ServerConfiguration responseConfig = null;
+    private volatile ResponseCompression compression = null;
 
     private final List<Gateway> gateways = new CopyOnWriteArrayList<>();
 
@@ -59,6 +62,24 @@ public class ServerCustomizer {
         }
     }
 
+    /**
+     * Register executor customization
+     * @throws IllegalStateException if executor is already customized by another plugin
+     */
+    public void registerExecutorCustomization(ServerConfiguration config, String pluginName) {
+        Executor executor = config.getExecutor();
+        if (executor != null) {
+            if (customExecutor != null) {
+                throw new IllegalStateException(
+                        "Executor is already customized by another plugin. " +
+                                "Only one plugin can customize the executor."
+                );
+            }
+            customExecutor = executor;
+            System.out.println("  ✅ Executor customization registered by: " + pluginName);
+        }
+    }
+
     /**
      * Register request customization
      * @throws IllegalStateException if request is already customized by another plugin
@@ -89,6 +110,33 @@ public class ServerCustomizer {
         System.out.println("  ✅ Response customization registered by: " + pluginName);
     }
 
+    /**
+     * Register response compression
+     * @throws IllegalStateException if compression is already customized by another plugin
+     */
+    public void registerCompressionCustomization(ServerConfiguration config, String pluginName) {
+        ResponseCompression custom = config.getCompression();
+        if (custom != null) {
+            if (compression != null) {
+                throw new IllegalStateException(
+                        "Compression is already customized by another plugin. " +
+                                "Only one plugin can customize compression."
+                );
+            }
+            compression = custom;
+            System.out.println("  ✅ Compression customization registered by: " + pluginName);
+        }
+    }
+
+    /**
+     * Enable compression when no plugin configured it (used for --compression)
+     */
+    public void setDefaultCompression(ResponseCompression defaultCompression) {
+        if (compression == null) {
+            compression = defaultCompression;
+        }
+    }
+
     /**
      * Register a gateway (multiple gateways allowed)
      */
@@ -109,6 +157,10 @@ public class ServerCustomizer {
         return hostConfig != null ? hostConfig.getHost() : null;
     }
 
+    public Executor getCustomExecutor() {
+        return customExecutor;
+    }
+
     public HttpRequest customizeRequest(HttpExchange exchange) throws Exception {
         if (requestConfig != null) {
             return requestConfig.customizeRequest(exchange);
@@ -122,6 +174,14 @@ public class ServerCustomizer {
         }
     }
 
+    /**
+     * Compression applied to responses after customizeResponse()
+     * @return the settings, or null when responses are sent uncompressed
+     */
+    public ResponseCompression getCompression() {
+        return compression;
+    }
+
     public List<Gateway> getGateways() {
         return new ArrayList<>(gateways);
     }
@@ -129,8 +189,10 @@ public class ServerCustomizer {
     public void clear() {
         portConfig = null;
         hostConfig = null;
+        customExecutor = null;
         requestConfig = null;
         responseConfig = null;
+        compression = null;
         gateways.clear();
     }
 }
@@ -0,0 +1,28 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.vcinsidedigital.webcore.routing.Router;
+
+import java.io.IOException;
+
+/**
+ * Transport that accepts HTTP requests and hands them to the Router
+ * The default implementation is HttpServerEngine; plugins that initialize the server
+ * select or extend an engine instead of parsing and writing exchanges themselves.
+ */
+public interface ServerEngine {
+
+    /**
+     * Get engine name for logging
+     */
+    String getName();
+
+    /**
+     * Bind, start gateways and begin serving requests
+     */
+    void start(Router router, ServerOptions options) throws IOException;
+
+    /**
+     * Stop serving, waiting up to delaySeconds for exchanges in progress
+     */
+    void stop(int delaySeconds);
+}
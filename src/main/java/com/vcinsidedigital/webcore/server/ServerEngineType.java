@@ -0,0 +1,23 @@
+package com.vcinsidedigital.webcore.server;
+
+/**
+ * HTTP server implementation used to accept connections
+ */
+public enum ServerEngineType {
+    /**
+     * com.sun.net.httpserver.HttpServer bundled with the JDK (default)
+     */
+    JDK,
+
+    /**
+     * Built-in non-blocking server with one selector event loop per core
+     */
+    NIO;
+
+    /**
+     * Parse an engine type from command line args (e.g. "jdk", "nio")
+     */
+    public static ServerEngineType fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
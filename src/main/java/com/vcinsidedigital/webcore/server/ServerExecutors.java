@@ -0,0 +1,64 @@
+package com.vcinsidedigital.webcore.server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory for request executors
+ * Plugins can return one of these from ServerConfiguration.getExecutor()
+ */
+public final class ServerExecutors {
+
+    private ServerExecutors() {}
+
+    /**
+     * Default pool size: two threads per core, since handlers usually block on I/O
+     */
+    public static int defaultThreads() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    /**
+     * Create an executor for the given type
+     * @return the executor, or null for DIRECT (handlers run on the dispatcher thread)
+     */
+    public static ExecutorService create(ExecutorType type, int threads) {
+        switch (type) {
+            case VIRTUAL:
+                return virtualThreads();
+            case DIRECT:
+                return null;
+            case PLATFORM:
+            default:
+                return platform(threads);
+        }
+    }
+
+    /**
+     * Fixed pool of platform threads
+     */
+    public static ExecutorService platform(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1, got " + threads);
+        }
+        return Executors.newFixedThreadPool(threads, namedThreads("webcore-worker-"));
+    }
+
+    /**
+     * One new virtual thread per request
+     */
+    public static ExecutorService virtualThreads() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("webcore-virtual-", 1).factory());
+    }
+
+    static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.vcinsidedigital.webcore.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Transport settings handed to a ServerEngine
+ * WebServerApplication.getServerOptions() returns the values resolved from args and plugins
+ */
+public class ServerOptions {
+    public static final long DEFAULT_MAX_BODY_SIZE = 64L * 1024 * 1024;
+
+    private String host = "localhost";
+    private int port = 8080;
+    private int backlog = 0;
+    private ServerEngineType engineType = ServerEngineType.JDK;
+    private Executor executor;
+    private List<Gateway> gateways = new ArrayList<>();
+    private long maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+    public ServerOptions() {
+    }
+
+    /**
+     * Copy constructor, so plugins can adjust options without changing the application's
+     */
+    public ServerOptions(ServerOptions other) {
+        this.host = other.host;
+        this.port = other.port;
+        this.backlog = other.backlog;
+        this.engineType = other.engineType;
+        this.executor = other.executor;
+        this.gateways = new ArrayList<>(other.gateways);
+        this.maxBodySize = other.maxBodySize;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Address to bind; null binds every interface
+     */
+    public ServerOptions host(String host) {
+        this.host = host;
+        return this;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public ServerOptions port(int port) {
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Listen backlog (0 uses the system default)
+     */
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public ServerOptions backlog(int backlog) {
+        this.backlog = backlog;
+        return this;
+    }
+
+    public ServerEngineType getEngineType() {
+        return engineType;
+    }
+
+    public ServerOptions engineType(ServerEngineType engineType) {
+        this.engineType = engineType;
+        return this;
+    }
+
+    /**
+     * Executor running request handlers (null runs them on the server's own thread)
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public ServerOptions executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public List<Gateway> getGateways() {
+        return gateways;
+    }
+
+    public ServerOptions gateways(List<Gateway> gateways) {
+        this.gateways = new ArrayList<>(gateways);
+        return this;
+    }
+
+    /**
+     * Largest accepted request body in bytes (default 64MB); larger requests get 413
+     */
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public ServerOptions maxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+}
@@ -0,0 +1,602 @@
+package com.vcinsidedigital.webcore.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vcinsidedigital.webcore.http.ETags;
+import com.vcinsidedigital.webcore.http.HttpStatus;
+import com.vcinsidedigital.webcore.server.nio.ZeroCopyExchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Gateway serving static files from a directory or a classpath prefix
+ *
+ * Small files are kept in an LRU cache bounded by total size; larger files are sent from disk,
+ * with FileChannel.transferTo when running on NioHttpServer. Supports ETag / Last-Modified
+ * validation (304) and single byte ranges (206 / 416). When ResponseCompression is enabled,
+ * text files are sent gzip / deflate encoded, and cached files are compressed only once.
+ *
+ * <pre>
+ * ServerCustomizer.getInstance().registerGateway(StaticResourceGateway.classpath("/assets", "static"));
+ * </pre>
+ */
+public class StaticResourceGateway implements Gateway {
+    private static final long DEFAULT_MAX_CACHE_SIZE = 16 * 1024 * 1024;
+    private static final long DEFAULT_MAX_CACHED_FILE_SIZE = 64 * 1024;
+    private static final int COPY_BUFFER_SIZE = 16 * 1024;
+    private static final long[] UNSATISFIABLE = new long[0];
+    private static final String INDEX_FILE = "index.html";
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("htm", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("js", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("mjs", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json");
+        CONTENT_TYPES.put("map", "application/json");
+        CONTENT_TYPES.put("txt", "text/plain; charset=utf-8");
+        CONTENT_TYPES.put("csv", "text/csv; charset=utf-8");
+        CONTENT_TYPES.put("xml", "application/xml");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("webp", "image/webp");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("wasm", "application/wasm");
+        CONTENT_TYPES.put("pdf", "application/pdf");
+        CONTENT_TYPES.put("mp4", "video/mp4");
+    }
+
+    private final String urlPrefix;
+    private final Path directory;
+    private final String resourcePrefix;
+    private final ClassLoader classLoader;
+
+    private final LinkedHashMap<String, Resource> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private long maxCacheSize = DEFAULT_MAX_CACHE_SIZE;
+    private long maxCachedFileSize = DEFAULT_MAX_CACHED_FILE_SIZE;
+    private String cacheControl;
+
+    private StaticResourceGateway(String urlPrefix, Path directory, String resourcePrefix, ClassLoader classLoader) {
+        this.urlPrefix = normalizePrefix(urlPrefix);
+        this.directory = directory;
+        this.resourcePrefix = resourcePrefix;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Serve files under a directory, e.g. directory("/files", Path.of("public"))
+     */
+    public static StaticResourceGateway directory(String urlPrefix, Path directory) {
+        return new StaticResourceGateway(urlPrefix, directory.toAbsolutePath().normalize(), null, null);
+    }
+
+    /**
+     * Serve classpath resources under a prefix, e.g. classpath("/assets", "static")
+     */
+    public static StaticResourceGateway classpath(String urlPrefix, String resourcePrefix) {
+        String prefix = resourcePrefix.replaceAll("^/+|/+$", "");
+        return new StaticResourceGateway(urlPrefix, null, prefix, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Total bytes kept in memory (default 16MB)
+     */
+    public StaticResourceGateway setMaxCacheSize(long maxCacheSize) {
+        this.maxCacheSize = maxCacheSize;
+        return this;
+    }
+
+    /**
+     * Larger files are never cached (default 64KB)
+     */
+    public StaticResourceGateway setMaxCachedFileSize(long maxCachedFileSize) {
+        this.maxCachedFileSize = maxCachedFileSize;
+        return this;
+    }
+
+    /**
+     * Cache-Control header sent with every file (none by default)
+     */
+    public StaticResourceGateway setCacheControl(String cacheControl) {
+        this.cacheControl = cacheControl;
+        return this;
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    @Override
+    public String getName() {
+        return "Static Resources (" + urlPrefix + ")";
+    }
+
+    @Override
+    public void initialize(HttpServer server) {
+        server.createContext(urlPrefix + "/", this::handle);
+    }
+
+    @Override
+    public void onStart() {
+        String source = directory != null ? directory.toString() : "classpath:" + resourcePrefix;
+        System.out.println("    └─ Serving " + source + " at " + urlPrefix + "/");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(HttpStatus.METHOD_NOT_ALLOWED.getCode(), -1);
+                return;
+            }
+
+            String relative = cleanPath(exchange.getRequestURI().getPath().substring(urlPrefix.length()));
+            Resource resource = relative != null ? resolve(relative) : null;
+            if (resource == null) {
+                ExchangeCodec.sendErrorResponse(exchange, HttpStatus.NOT_FOUND.getCode(), HttpStatus.NOT_FOUND.getReasonPhrase());
+                return;
+            }
+
+            serve(exchange, resource, "HEAD".equals(method));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // ===== Resolution =====
+
+    /**
+     * Relative path without empty and "." segments
+     * @return the path, or null if it tries to leave the root
+     */
+    private static String cleanPath(String path) {
+        StringBuilder clean = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) {
+                continue;
+            }
+            if (segment.equals("..") || segment.indexOf('\\') >= 0 || segment.indexOf('\0') >= 0) {
+                return null;
+            }
+            if (clean.length() > 0) clean.append('/');
+            clean.append(segment);
+        }
+        return clean.toString();
+    }
+
+    private Resource resolve(String relative) throws IOException {
+        return directory != null ? resolveFile(relative) : resolveClasspath(relative);
+    }
+
+    private Resource resolveFile(String relative) throws IOException {
+        Path file = directory.resolve(relative).normalize();
+        if (!file.startsWith(directory)) {
+            return null;
+        }
+        if (Files.isDirectory(file)) {
+            file = file.resolve(INDEX_FILE);
+        }
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        return loadFile(file.toString(), file);
+    }
+
+    private Resource loadFile(String key, Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        // Cached copies are revalidated against the file, so edits show up immediately
+        Resource cached = cached(key);
+        if (cached != null && cached.length == length && cached.lastModified == lastModified) {
+            return cached;
+        }
+
+        String contentType = contentType(file.getFileName().toString());
+        if (length <= maxCachedFileSize) {
+            Resource resource = Resource.inMemory(Files.readAllBytes(file), lastModified, contentType);
+            cache(key, resource);
+            return resource;
+        }
+        return Resource.file(file, length, lastModified, contentType);
+    }
+
+    private Resource resolveClasspath(String relative) throws IOException {
+        String name = relative.isEmpty() ? INDEX_FILE : relative;
+        String key = resourcePrefix.isEmpty() ? name : resourcePrefix + "/" + name;
+
+        // Resources inside jars do not change while running: no revalidation
+        Resource cached = cached(key);
+        if (cached != null && cached.file == null) {
+            return cached;
+        }
+
+        URL url = classLoader.getResource(key);
+        if (url == null) {
+            return null;
+        }
+
+        // Exploded classpath (IDE, mvn exec): serve it like a directory
+        if ("file".equals(url.getProtocol())) {
+            try {
+                Path file = Path.of(url.toURI());
+                if (Files.isDirectory(file)) {
+                    return relative.isEmpty() ? null : resolveClasspath(relative + "/" + INDEX_FILE);
+                }
+                return loadFile(key, file);
+            } catch (URISyntaxException e) {
+                // Fall through to URL access
+            }
+        }
+
+        URLConnection connection = url.openConnection();
+        long length = connection.getContentLengthLong();
+        long lastModified = connection.getLastModified() > 0 ? connection.getLastModified() : -1;
+        String contentType = contentType(name);
+
+        try (InputStream in = connection.getInputStream()) {
+            if (length >= 0 && length > maxCachedFileSize) {
+                return Resource.url(url, length, lastModified, contentType);
+            }
+
+            // Small (or unknown length): keep it in memory
+            byte[] content = in.readAllBytes();
+            Resource resource = Resource.inMemory(content, lastModified, contentType);
+            if (content.length <= maxCachedFileSize) {
+                cache(key, resource);
+            }
+            return resource;
+        }
+    }
+
+    private static String contentType(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase() : "";
+        String type = CONTENT_TYPES.get(extension);
+        if (type == null) {
+            type = URLConnection.guessContentTypeFromName(fileName);
+        }
+        return type != null ? type : "application/octet-stream";
+    }
+
+    // ===== Cache =====
+
+    private synchronized Resource cached(String key) {
+        return cache.get(key);
+    }
+
+    private synchronized void cache(String key, Resource resource) {
+        Resource previous = cache.put(key, resource);
+        if (previous != null) {
+            cachedBytes -= previous.length;
+        }
+        cachedBytes += resource.length;
+
+        // Evict least recently used entries until the cache fits
+        Iterator<Resource> eldest = cache.values().iterator();
+        while (cachedBytes > maxCacheSize && eldest.hasNext()) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    // ===== Response =====
+
+    private void serve(HttpExchange exchange, Resource resource, boolean head) throws IOException {
+        Headers requestHeaders = exchange.getRequestHeaders();
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", resource.contentType);
+
+        ResponseCompression compression = ServerCustomizer.getInstance().getCompression();
+        String encoding = compression != null ? compression.negotiate(exchange, resource.contentType) : null;
+        if (encoding != null && resource.length < compression.getMinSize()) {
+            encoding = null;
+        }
+
+        if (encoding == null) {
+            headers.set("Accept-Ranges", "bytes"); // Ranges are only served on the identity encoding
+        }
+        if (resource.lastModified > 0) {
+            headers.set("Last-Modified", formatDate(resource.lastModified));
+        }
+        if (resource.etag != null) {
+            headers.set("ETag", encoding != null ? ResponseCompression.variantTag(resource.etag, encoding) : resource.etag);
+        }
+        if (cacheControl != null) {
+            headers.set("Cache-Control", cacheControl);
+        }
+
+        if (isNotModified(requestHeaders, resource)) {
+            exchange.sendResponseHeaders(HttpStatus.NOT_MODIFIED.getCode(), -1);
+            return;
+        }
+
+        if (encoding != null) {
+            serveCompressed(exchange, resource, compression, encoding, head);
+            return;
+        }
+
+        long start = 0;
+        long count = resource.length;
+        int status = HttpStatus.OK.getCode();
+
+        String range = requestHeaders.getFirst("Range");
+        if (range != null && ifRangeMatches(requestHeaders.getFirst("If-Range"), resource)) {
+            long[] bounds = parseRange(range, resource.length);
+            if (bounds == UNSATISFIABLE) {
+                headers.set("Content-Range", "bytes */" + resource.length);
+                exchange.sendResponseHeaders(HttpStatus.RANGE_NOT_SATISFIABLE.getCode(), -1);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                count = bounds[1] - bounds[0] + 1;
+                status = HttpStatus.PARTIAL_CONTENT.getCode();
+                headers.set("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + resource.length);
+            }
+        }
+
+        if (head || count == 0) {
+            if (head) {
+                headers.set("Content-Length", String.valueOf(count));
+            }
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, count);
+        OutputStream out = exchange.getResponseBody();
+        writeBody(exchange, out, resource, start, count);
+        out.close();
+    }
+
+    /**
+     * Cached files are compressed once per encoding and served from the compressed variant cache;
+     * larger files are compressed while streaming them (chunked)
+     */
+    private static void serveCompressed(HttpExchange exchange, Resource resource, ResponseCompression compression,
+                                        String encoding, boolean head) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Encoding", encoding);
+        int status = HttpStatus.OK.getCode();
+
+        if (resource.content != null) {
+            String cacheKey = resource.etag != null ? ResponseCompression.variantKey(exchange, resource.etag) : null;
+            byte[] compressed = compression.compress(ByteBuffer.wrap(resource.content), encoding, cacheKey);
+            if (head) {
+                headers.set("Content-Length", String.valueOf(compressed.length));
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(status, compressed.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(compressed);
+            out.close();
+            return;
+        }
+
+        if (head) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream out = exchange.getResponseBody();
+        OutputStream compressor = compression.wrap(out, encoding);
+        try (InputStream in = resource.file != null ? Files.newInputStream(resource.file) : resource.url.openStream()) {
+            copy(in, compressor, resource.length);
+        }
+        compressor.close();
+        out.close();
+    }
+
+    private static void writeBody(HttpExchange exchange, OutputStream out, Resource resource, long start, long count) throws IOException {
+        if (resource.content != null) {
+            out.write(resource.content, (int) start, (int) count);
+            return;
+        }
+
+        if (resource.file != null) {
+            try (FileChannel channel = FileChannel.open(resource.file, StandardOpenOption.READ)) {
+                if (exchange instanceof ZeroCopyExchange) {
+                    ((ZeroCopyExchange) exchange).sendFile(channel, start, count);
+                } else {
+                    copy(Channels.newInputStream(channel.position(start)), out, count);
+                }
+            }
+            return;
+        }
+
+        try (InputStream in = resource.url.openStream()) {
+            in.skipNBytes(start);
+            copy(in, out, count);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(count, COPY_BUFFER_SIZE)];
+        while (count > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (read < 0) {
+                throw new IOException("Resource truncated while sending");
+            }
+            out.write(buffer, 0, read);
+            count -= read;
+        }
+    }
+
+    // ===== Conditional and range requests =====
+
+    private static boolean isNotModified(Headers requestHeaders, Resource resource) {
+        // If-None-Match takes precedence over If-Modified-Since (RFC 9110 section 13.2.2)
+        String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ETags.matches(ifNoneMatch, resource.etag);
+        }
+
+        String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+        if (ifModifiedSince != null && resource.lastModified > 0) {
+            long since = parseDate(ifModifiedSince);
+            return since >= 0 && resource.lastModified / 1000 <= since / 1000;
+        }
+        return false;
+    }
+
+    private static boolean ifRangeMatches(String ifRange, Resource resource) {
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(resource.etag); // Strong comparison only
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        long date = parseDate(ifRange);
+        return date >= 0 && resource.lastModified > 0 && resource.lastModified / 1000 == date / 1000;
+    }
+
+    /**
+     * Parse a single "bytes=" range
+     * @return {start, end} inclusive, UNSATISFIABLE, or null to ignore the header and send everything
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        if (spec.indexOf(',') >= 0) {
+            return null; // Multiple ranges: the full body is an allowed answer
+        }
+
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Suffix range: last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return new long[]{start, Math.min(end, length - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String formatDate(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+
+    private static long parseDate(String value) {
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static String normalizePrefix(String prefix) {
+        String normalized = ("/" + prefix).replaceAll("/+", "/").replaceAll("/$", "");
+        if (normalized.isEmpty()) {
+            // The router owns the root context
+            throw new IllegalArgumentException("Static resources need a URL prefix other than /");
+        }
+        return normalized;
+    }
+
+    /**
+     * A servable file: cached bytes, a file on disk or a classpath URL
+     */
+    private static final class Resource {
+        private final byte[] content;
+        private final Path file;
+        private final URL url;
+        private final long length;
+        private final long lastModified;
+        private final String etag;
+        private final String contentType;
+
+        private Resource(byte[] content, Path file, URL url, long length, long lastModified, String etag, String contentType) {
+            this.content = content;
+            this.file = file;
+            this.url = url;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.contentType = contentType;
+        }
+
+        static Resource inMemory(byte[] content, long lastModified, String contentType) {
+            String etag;
+            if (lastModified > 0) {
+                etag = etag(content.length, lastModified);
+            } else {
+                etag = ETags.forBody(ByteBuffer.wrap(content));
+            }
+            return new Resource(content, null, null, content.length, lastModified, etag, contentType);
+        }
+
+        static Resource file(Path file, long length, long lastModified, String contentType) {
+            return new Resource(null, file, null, length, lastModified, etag(length, lastModified), contentType);
+        }
+
+        static Resource url(URL url, long length, long lastModified, String contentType) {
+            String etag = lastModified > 0 ? etag(length, lastModified) : null;
+            return new Resource(null, null, url, length, lastModified, etag, contentType);
+        }
+
+        private static String etag(long length, long lastModified) {
+            return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package com.vcinsidedigital.webcore.server.nio;
+
+import com.vcinsidedigital.webcore.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * One client connection, owned by an event loop
+ *
+ * Reading and parsing happen on the loop thread. While a request is handled the connection
+ * stops reading; the worker writes the response directly to the socket and only hands the
+ * remainder to the loop when the socket buffer is full. Once the response is fully written the
+ * connection goes back to reading (keep-alive) or is closed.
+ */
+final class NioConnection {
+    private static final long HIGH_WATER_MARK = 256 * 1024;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final NioHttpServer server;
+    private final EventLoop loop;
+    private final SocketChannel channel;
+    private final RequestParser parser;
+    private SelectionKey key;
+    private ByteBuffer readBuffer;
+
+    // Loop thread state
+    private boolean handling;
+    private boolean continueSent;
+    private long lastActivity = System.currentTimeMillis();
+
+    // Write state, guarded by writeLock
+    private final Object writeLock = new Object();
+    private final Deque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    private long pendingBytes;
+    private boolean responseDone;
+    private boolean closeAfterResponse;
+    private volatile boolean closed;
+
+    NioConnection(NioHttpServer server, EventLoop loop, SocketChannel channel) {
+        this.server = server;
+        this.loop = loop;
+        this.channel = channel;
+        this.parser = new RequestParser(server.getMaxRequestBodySize());
+        this.readBuffer = server.getBufferPool().acquire();
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    // ===== Reading (loop thread) =====
+
+    void onReadable() {
+        if (closed || readBuffer == null) {
+            return;
+        }
+
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (read < 0) {
+            close();
+            return;
+        }
+
+        lastActivity = System.currentTimeMillis();
+        processInput();
+    }
+
+    private void processInput() {
+        if (handling || closed) {
+            return;
+        }
+
+        readBuffer.flip();
+        RequestParser.Request request;
+        try {
+            request = parser.parse(readBuffer);
+        } catch (RequestParser.ParseException e) {
+            readBuffer.clear();
+            rejectAndClose(e.status);
+            return;
+        }
+        readBuffer.compact();
+
+        if (request == null) {
+            RequestParser.Request pending = parser.getPending();
+            if (pending != null && pending.expectContinue && !continueSent) {
+                continueSent = true;
+                writeQuietly(ByteBuffer.wrap(CONTINUE));
+            }
+            return;
+        }
+
+        continueSent = false;
+        dispatch(request);
+    }
+
+    private void dispatch(RequestParser.Request request) {
+        handling = true;
+        key.interestOps(0);
+
+        synchronized (writeLock) {
+            responseDone = false;
+            closeAfterResponse = !request.keepAlive;
+        }
+
+        server.dispatch(new NioHttpExchange(server, this, request));
+    }
+
+    private void rejectAndClose(HttpStatus status) {
+        handling = true;
+        key.interestOps(0);
+        String response = "HTTP/1.1 " + status.getCode() + " " + status.getReasonPhrase() + "\r\n" +
+                "Content-Length: 0\r\nConnection: close\r\n\r\n";
+        synchronized (writeLock) {
+            responseDone = true;
+            closeAfterResponse = true;
+        }
+        writeQuietly(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+        completeIfDrained();
+    }
+
+    // ===== Writing (any thread) =====
+
+    /**
+     * Write response bytes
+     * Pooled buffers are owned by the connection afterwards and returned to the pool once written.
+     * Other buffers are written before this returns, unless called on the loop thread, where
+     * blocking would stop the loop from draining; their remainder is then copied.
+     */
+    void write(ByteBuffer data, boolean pooled) throws IOException {
+        boolean inLoop = loop.inLoopThread();
+
+        synchronized (writeLock) {
+            if (closed) {
+                if (pooled) server.getBufferPool().release(data);
+                throw new IOException("Connection closed");
+            }
+
+            if (pendingWrites.isEmpty()) {
+                try {
+                    channel.write(data);
+                } catch (IOException e) {
+                    if (pooled) server.getBufferPool().release(data);
+                    closeLater();
+                    throw e;
+                }
+                if (!data.hasRemaining()) {
+                    if (pooled) server.getBufferPool().release(data);
+                    return;
+                }
+            }
+
+            ByteBuffer queued = data;
+            if (!pooled && inLoop) {
+                queued = ByteBuffer.allocate(data.remaining()).put(data).flip();
+            }
+
+            boolean wasEmpty = pendingWrites.isEmpty();
+            pendingWrites.add(new PendingWrite(queued, pooled));
+            pendingBytes += queued.remaining();
+            if (wasEmpty) {
+                loop.execute(this::enableWrite);
+            }
+
+            if (inLoop) {
+                return;
+            }
+
+            // Back-pressure: wait for the loop to drain
+            while (!closed && (pooled ? pendingBytes > HIGH_WATER_MARK : queued.hasRemaining())) {
+                try {
+                    writeLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing response");
+                }
+            }
+            if (closed && !pooled && queued.hasRemaining()) {
+                throw new IOException("Connection closed");
+            }
+        }
+    }
+
+    /**
+     * Send a file region with FileChannel.transferTo (no copy through user space)
+     * Returns once the region was handed to the socket; must not be called on the loop thread
+     */
+    void transferFrom(FileChannel file, long position, long count) throws IOException {
+        synchronized (writeLock) {
+            if (closed) {
+                throw new IOException("Connection closed");
+            }
+
+            if (pendingWrites.isEmpty()) {
+                try {
+                    while (count > 0) {
+                        long sent = file.transferTo(position, count, channel);
+                        if (sent <= 0) {
+                            break; // Socket buffer full
+                        }
+                        position += sent;
+                        count -= sent;
+                    }
+                } catch (IOException e) {
+                    closeLater();
+                    throw e;
+                }
+                if (count == 0) {
+                    return;
+                }
+            }
+
+            PendingWrite region = new PendingWrite(file, position, count);
+            boolean wasEmpty = pendingWrites.isEmpty();
+            pendingWrites.add(region);
+            pendingBytes += count;
+            if (wasEmpty) {
+                loop.execute(this::enableWrite);
+            }
+
+            // The caller closes the file afterwards: wait until the loop has sent the region
+            while (!closed && region.remaining() > 0) {
+                try {
+                    writeLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while sending file");
+                }
+            }
+            if (region.remaining() > 0) {
+                throw new IOException("Connection closed");
+            }
+        }
+    }
+
+    private void writeQuietly(ByteBuffer data) {
+        try {
+            write(data, false);
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void enableWrite() {
+        if (key.isValid()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    void onWritable() {
+        boolean finished;
+        synchronized (writeLock) {
+            try {
+                while (!pendingWrites.isEmpty()) {
+                    PendingWrite head = pendingWrites.peek();
+                    pendingBytes -= head.writeTo(channel);
+                    if (head.remaining() > 0) {
+                        break;
+                    }
+                    pendingWrites.poll();
+                    if (head.pooled) server.getBufferPool().release(head.buffer);
+                }
+            } catch (IOException e) {
+                writeLock.notifyAll();
+                close();
+                return;
+            }
+
+            writeLock.notifyAll();
+            if (!pendingWrites.isEmpty()) {
+                return;
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            finished = responseDone;
+        }
+
+        lastActivity = System.currentTimeMillis();
+        if (finished) {
+            finishResponse();
+        }
+    }
+
+    /**
+     * Called by the exchange when the whole response has been handed to write()
+     */
+    void completeResponse(boolean close) {
+        synchronized (writeLock) {
+            responseDone = true;
+            if (close) closeAfterResponse = true;
+        }
+        completeIfDrained();
+    }
+
+    private void completeIfDrained() {
+        synchronized (writeLock) {
+            if (!pendingWrites.isEmpty()) {
+                return; // onWritable() finishes the response once drained
+            }
+        }
+        loop.execute(this::finishResponse);
+    }
+
+    private void finishResponse() {
+        if (closed) {
+            return;
+        }
+        if (closeAfterResponse) {
+            close();
+            return;
+        }
+
+        handling = false;
+        lastActivity = System.currentTimeMillis();
+        key.interestOps(SelectionKey.OP_READ);
+
+        // A pipelined request may already be buffered
+        if (readBuffer.position() > 0) {
+            processInput();
+        }
+    }
+
+    boolean inLoopThread() {
+        return loop.inLoopThread();
+    }
+
+    // ===== Lifecycle =====
+
+    boolean isIdleSince(long timestamp) {
+        return !handling && lastActivity < timestamp;
+    }
+
+    InetSocketAddress getRemoteAddress() {
+        try {
+            return (InetSocketAddress) channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    InetSocketAddress getLocalAddress() {
+        try {
+            return (InetSocketAddress) channel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Close from a worker thread
+     */
+    void closeLater() {
+        loop.execute(this::close);
+    }
+
+    void close() {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (PendingWrite pending : pendingWrites) {
+                if (pending.pooled) server.getBufferPool().release(pending.buffer);
+            }
+            pendingWrites.clear();
+            pendingBytes = 0;
+            writeLock.notifyAll();
+        }
+
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+
+        loop.execute(() -> {
+            loop.unregister(this);
+            server.getBufferPool().release(readBuffer);
+            readBuffer = null;
+        });
+    }
+
+    /**
+     * Bytes waiting for the socket: a buffer, or a file region sent with transferTo
+     */
+    private static final class PendingWrite {
+        private final ByteBuffer buffer;
+        private final boolean pooled;
+        private final FileChannel file;
+        private long position;
+        private long count;
+
+        private PendingWrite(ByteBuffer buffer, boolean pooled) {
+            this.buffer = buffer;
+            this.pooled = pooled;
+            this.file = null;
+        }
+
+        private PendingWrite(FileChannel file, long position, long count) {
+            this.buffer = null;
+            this.pooled = false;
+            this.file = file;
+            this.position = position;
+            this.count = count;
+        }
+
+        long remaining() {
+            return file != null ? count : buffer.remaining();
+        }
+
+        long writeTo(SocketChannel channel) throws IOException {
+            if (file == null) {
+                return channel.write(buffer);
+            }
+            long sent = file.transferTo(position, count, channel);
+            if (sent == 0 && position >= file.size()) {
+                throw new IOException("File truncated while sending");
+            }
+            position += sent;
+            count -= sent;
+            return sent;
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package com.vcinsidedigital.webcore.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import com.vcinsidedigital.webcore.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HttpExchange backed by a NioConnection
+ * Follows the JDK server's sendResponseHeaders() contract: a positive length sends a fixed
+ * length body, 0 sends a chunked body and -1 sends no body.
+ */
+final class NioHttpExchange extends HttpExchange implements ZeroCopyExchange {
+    private static volatile CachedDate cachedDate = new CachedDate(0, "");
+
+    private final NioHttpServer server;
+    private final NioConnection connection;
+    private final RequestParser.Request request;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private NioHttpContext context;
+    private HttpPrincipal principal;
+
+    private InputStream requestBody;
+    private OutputStream responseBody;
+    private final OutputStream defaultResponseBody;
+    private ConnectionOutputStream rawOutput;
+    private OutputStream bodyOutput;
+    private int responseCode = -1;
+    private boolean closed;
+
+    NioHttpExchange(NioHttpServer server, NioConnection connection, RequestParser.Request request) {
+        this.server = server;
+        this.connection = connection;
+        this.request = request;
+        this.requestBody = new ByteArrayInputStream(request.body);
+        this.responseBody = new ResponseBodyStream();
+        this.defaultResponseBody = responseBody;
+    }
+
+    void setContext(NioHttpContext context) {
+        this.context = context;
+    }
+
+    void setPrincipal(HttpPrincipal principal) {
+        this.principal = principal;
+    }
+
+    boolean isResponseStarted() {
+        return responseCode != -1;
+    }
+
+    /**
+     * Drop the connection without (finishing) a response
+     */
+    void abort() {
+        closed = true;
+        connection.closeLater();
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return request.headers;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return request.uri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return request.method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return context;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (responseCode == -1) {
+            // Handler never answered: nothing sensible can be sent on this connection
+            connection.closeLater();
+            return;
+        }
+
+        try {
+            bodyOutput.close();
+        } catch (IOException e) {
+            connection.closeLater();
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        if (responseCode != -1) {
+            throw new IOException("headers already sent");
+        }
+        responseCode = rCode;
+
+        boolean closeConnection = !request.keepAlive;
+        boolean noBodyAllowed = rCode < 200 || rCode == 204 || rCode == 304;
+        boolean head = "HEAD".equalsIgnoreCase(request.method);
+
+        StringBuilder builder = new StringBuilder(256);
+        builder.append("HTTP/1.1 ").append(rCode).append(' ').append(reasonPhrase(rCode)).append("\r\n");
+        builder.append("Date: ").append(currentDate()).append("\r\n");
+
+        long bodyLength;
+        if (noBodyAllowed) {
+            bodyLength = 0;
+        } else if (head) {
+            // A handler may report the length of the body it would have sent
+            if (responseLength > 0 && !responseHeaders.containsKey("Content-Length")) {
+                builder.append("Content-Length: ").append(responseLength).append("\r\n");
+            }
+            bodyLength = 0;
+        } else if (responseLength > 0) {
+            builder.append("Content-Length: ").append(responseLength).append("\r\n");
+            bodyLength = responseLength;
+        } else if (responseLength == 0) {
+            builder.append("Transfer-Encoding: chunked\r\n");
+            bodyLength = -1;
+        } else {
+            builder.append("Content-Length: 0\r\n");
+            bodyLength = 0;
+        }
+
+        if (closeConnection) {
+            builder.append("Connection: close\r\n");
+        }
+
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+            String name = header.getKey();
+            if ((name.equalsIgnoreCase("Content-Length") && !head) || name.equalsIgnoreCase("Transfer-Encoding")
+                    || name.equalsIgnoreCase("Date")) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                builder.append(name).append(": ").append(value).append("\r\n");
+            }
+        }
+        builder.append("\r\n");
+
+        rawOutput = new ConnectionOutputStream(connection, server.getBufferPool());
+        rawOutput.write(builder.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        if (noBodyAllowed || head) {
+            // Like the JDK server, tolerate handlers that still write a body: it is dropped
+            bodyOutput = new DiscardingOutputStream(rawOutput, closeConnection);
+        } else if (bodyLength < 0) {
+            bodyOutput = new ChunkedOutputStream(rawOutput, closeConnection);
+        } else {
+            bodyOutput = new FixedLengthOutputStream(rawOutput, bodyLength, closeConnection);
+        }
+    }
+
+    @Override
+    public void sendFile(FileChannel file, long position, long count) throws IOException {
+        if (bodyOutput == null) {
+            throw new IOException("sendResponseHeaders() must be called before writing the body");
+        }
+
+        // transferTo bypasses the streams: only possible for a plain fixed length body,
+        // and not on the loop thread, which must never wait for the socket
+        if (bodyOutput instanceof FixedLengthOutputStream && responseBody == defaultResponseBody
+                && !connection.inLoopThread()) {
+            ((FixedLengthOutputStream) bodyOutput).transfer(file, position, count);
+            return;
+        }
+
+        ByteBuffer chunk = ByteBuffer.allocate((int) Math.min(count, 64 * 1024));
+        long end = position + count;
+        while (position < end) {
+            chunk.clear().limit((int) Math.min(chunk.capacity(), end - position));
+            int read = file.read(chunk, position);
+            if (read < 0) {
+                throw new IOException("File truncated while sending");
+            }
+            responseBody.write(chunk.array(), 0, read);
+            position += read;
+        }
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return connection.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return request.protocol;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        if (i != null) {
+            requestBody = i;
+        }
+        if (o != null) {
+            responseBody = o;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return principal;
+    }
+
+    private static String reasonPhrase(int code) {
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.getCode() == code) {
+                return status.getReasonPhrase();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Date header value, formatted at most once per second
+     */
+    private static String currentDate() {
+        long second = System.currentTimeMillis() / 1000;
+        CachedDate cached = cachedDate;
+        if (cached.second != second) {
+            cached = new CachedDate(second, DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC)));
+            cachedDate = cached;
+        }
+        return cached.value;
+    }
+
+    private static final class CachedDate {
+        private final long second;
+        private final String value;
+
+        private CachedDate(long second, String value) {
+            this.second = second;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Stream returned by getResponseBody(), usable once sendResponseHeaders() was called
+     */
+    private final class ResponseBodyStream extends OutputStream {
+        private OutputStream target() throws IOException {
+            if (bodyOutput == null) {
+                throw new IOException("sendResponseHeaders() must be called before writing the body");
+            }
+            return bodyOutput;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (bodyOutput != null) {
+                bodyOutput.close();
+            }
+        }
+    }
+
+    /**
+     * Buffers writes into pooled buffers and hands full buffers to the connection
+     */
+    static final class ConnectionOutputStream extends OutputStream {
+        private final NioConnection connection;
+        private final BufferPool bufferPool;
+        private ByteBuffer buffer;
+
+        ConnectionOutputStream(NioConnection connection, BufferPool bufferPool) {
+            this.connection = connection;
+            this.bufferPool = bufferPool;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffer == null) {
+                buffer = bufferPool.acquire();
+            } else if (!buffer.hasRemaining()) {
+                flush();
+                buffer = bufferPool.acquire();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len >= bufferPool.getBufferSize()) {
+                // Large writes go straight to the socket instead of being copied through the pool
+                flush();
+                connection.write(ByteBuffer.wrap(b, off, len), false);
+                return;
+            }
+            if (buffer == null) {
+                buffer = bufferPool.acquire();
+            } else if (buffer.remaining() < len) {
+                flush();
+                buffer = bufferPool.acquire();
+            }
+            buffer.put(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer != null && buffer.position() > 0) {
+                ByteBuffer full = buffer;
+                buffer = null;
+                full.flip();
+                connection.write(full, true);
+            }
+        }
+
+        void transferFrom(FileChannel file, long position, long count) throws IOException {
+            connection.transferFrom(file, position, count);
+        }
+
+        /**
+         * Flush what is left and tell the connection the response is complete
+         */
+        void finish(boolean closeConnection) throws IOException {
+            try {
+                flush();
+            } finally {
+                if (buffer != null) {
+                    bufferPool.release(buffer);
+                    buffer = null;
+                }
+            }
+            connection.completeResponse(closeConnection);
+        }
+    }
+
+    private static final class FixedLengthOutputStream extends OutputStream {
+        private final ConnectionOutputStream output;
+        private final long length;
+        private final boolean closeConnection;
+        private long written;
+        private boolean closed;
+
+        FixedLengthOutputStream(ConnectionOutputStream output, long length, boolean closeConnection) {
+            this.output = output;
+            this.length = length;
+            this.closeConnection = closeConnection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            if (written + len > length) {
+                throw new IOException("too many bytes to write to stream");
+            }
+            output.write(b, off, len);
+            written += len;
+        }
+
+        void transfer(FileChannel file, long position, long count) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            if (written + count > length) {
+                throw new IOException("too many bytes to write to stream");
+            }
+            output.flush(); // Headers and earlier writes go first
+            output.transferFrom(file, position, count);
+            written += count;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // A short body leaves the client waiting for bytes that never come: drop the connection
+            output.finish(closeConnection || written < length);
+        }
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+        private final ConnectionOutputStream output;
+        private final boolean closeConnection;
+        private boolean closed;
+
+        DiscardingOutputStream(ConnectionOutputStream output, boolean closeConnection) {
+            this.output = output;
+            this.closeConnection = closeConnection;
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            output.finish(closeConnection);
+        }
+    }
+
+    private static final class ChunkedOutputStream extends OutputStream {
+        private static final byte[] CRLF = {'\r', '\n'};
+        private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+        private final ConnectionOutputStream output;
+        private final boolean closeConnection;
+        private final byte[] chunk = new byte[8192];
+        private int count;
+        private boolean closed;
+
+        ChunkedOutputStream(ConnectionOutputStream output, boolean closeConnection) {
+            this.output = output;
+            this.closeConnection = closeConnection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == chunk.length) {
+                writeChunk(chunk, 0, count);
+                count = 0;
+            }
+            chunk[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("stream closed");
+            }
+            if (len == 0) {
+                return;
+            }
+            if (count + len <= chunk.length) {
+                System.arraycopy(b, off, chunk, count, len);
+                count += len;
+                return;
+            }
+            flushChunk();
+            writeChunk(b, off, len);
+        }
+
+        private void flushChunk() throws IOException {
+            if (count > 0) {
+                writeChunk(chunk, 0, count);
+                count = 0;
+            }
+        }
+
+        private void writeChunk(byte[] b, int off, int len) throws IOException {
+            output.write((Integer.toHexString(len) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            output.write(b, off, len);
+            output.write(CRLF);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+            output.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            flushChunk();
+            output.write(LAST_CHUNK);
+            output.finish(closeConnection);
+        }
+    }
+}
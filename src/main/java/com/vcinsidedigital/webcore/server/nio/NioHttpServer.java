@@ -0,0 +1,358 @@
+package com.vcinsidedigital.webcore.server.nio;
+
+import com.sun.net.httpserver.Authenticator;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking HTTP/1.1 server built on java.nio selectors
+ *
+ * Drop-in replacement for the JDK HttpServer: gateways and plugins keep using createContext()
+ * and HttpExchange. One acceptor thread hands connections round-robin to one event loop per
+ * core; each loop reads and parses requests for its connections without blocking, and the
+ * parsed exchange is handed to the executor (or handled on the loop when none is set).
+ *
+ * Request bodies, chunked or not, are buffered in memory up to the configured maximum (413 above).
+ */
+public class NioHttpServer extends HttpServer {
+    private static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30_000;
+    private static final long DEFAULT_MAX_REQUEST_BODY_SIZE = 64L * 1024 * 1024;
+
+    private final List<NioHttpContext> contexts = new CopyOnWriteArrayList<>();
+    private final int loopCount;
+    private ServerSocketChannel serverChannel;
+    private Selector acceptSelector;
+    private Thread acceptorThread;
+    private EventLoop[] loops;
+    private int nextLoop;
+    private volatile Executor executor;
+    private volatile boolean running;
+
+    private BufferPool bufferPool;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private long maxRequestBodySize = DEFAULT_MAX_REQUEST_BODY_SIZE;
+
+    public NioHttpServer() {
+        this.loopCount = Runtime.getRuntime().availableProcessors();
+    }
+
+    public NioHttpServer(InetSocketAddress address, int backlog) throws IOException {
+        this();
+        if (address != null) {
+            bindChannel(address, backlog);
+        }
+    }
+
+    // ===== Tuning =====
+
+    /**
+     * Size of read buffers; a request head must fit in one buffer
+     */
+    public void setBufferSize(int bufferSize) {
+        ensureNotStarted();
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Keep-alive connections idle for longer than this are closed
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Larger request bodies are answered with 413
+     */
+    public void setMaxRequestBodySize(long maxRequestBodySize) {
+        ensureNotStarted();
+        this.maxRequestBodySize = Math.min(maxRequestBodySize, Integer.MAX_VALUE - 8);
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public long getMaxRequestBodySize() {
+        return maxRequestBodySize;
+    }
+
+    BufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    // ===== HttpServer =====
+
+    @Override
+    public void bind(InetSocketAddress address, int backlog) throws IOException {
+        bindChannel(address, backlog);
+    }
+
+    // Also used by the constructor, which must not call the overridable bind()
+    private void bindChannel(InetSocketAddress address, int backlog) throws IOException {
+        if (serverChannel != null) {
+            throw new BindException("HttpServer already bound");
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(address, backlog);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        serverChannel = channel;
+    }
+
+    @Override
+    public void start() {
+        if (serverChannel == null) {
+            throw new IllegalStateException("server not bound");
+        }
+        if (running) {
+            throw new IllegalStateException("server already started");
+        }
+
+        try {
+            bufferPool = new BufferPool(bufferSize, loopCount * 256);
+            loops = new EventLoop[loopCount];
+            for (int i = 0; i < loopCount; i++) {
+                loops[i] = new EventLoop(this, "nio-http-loop-" + (i + 1));
+            }
+
+            serverChannel.configureBlocking(false);
+            acceptSelector = Selector.open();
+            serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start NIO server", e);
+        }
+
+        running = true;
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+        acceptorThread = new Thread(this::acceptLoop, "nio-http-acceptor");
+        acceptorThread.start();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                acceptSelector.select();
+                acceptSelector.selectedKeys().clear();
+
+                SocketChannel channel;
+                while ((channel = serverChannel.accept()) != null) {
+                    loops[nextLoop].register(channel);
+                    nextLoop = (nextLoop + 1) % loops.length;
+                }
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void setExecutor(Executor executor) {
+        if (running) {
+            throw new IllegalStateException("server already started");
+        }
+        this.executor = executor;
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public void stop(int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("negative delay parameter");
+        }
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        try {
+            serverChannel.close();
+        } catch (IOException ignored) {
+        }
+        acceptSelector.wakeup();
+        try {
+            acceptorThread.join(1000);
+            acceptSelector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+        }
+
+        // Give in-flight exchanges up to delay seconds, like the JDK server
+        long timeoutMillis = Math.max(delay * 1000L, 1);
+        for (EventLoop loop : loops) {
+            loop.shutdown(timeoutMillis);
+        }
+    }
+
+    @Override
+    public HttpContext createContext(String path, HttpHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("null handler");
+        }
+        return addContext(path, handler);
+    }
+
+    @Override
+    public HttpContext createContext(String path) {
+        return addContext(path, null);
+    }
+
+    private HttpContext addContext(String path, HttpHandler handler) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Illegal value for path");
+        }
+        for (NioHttpContext context : contexts) {
+            if (context.getPath().equals(path)) {
+                throw new IllegalArgumentException("cannot add context to list");
+            }
+        }
+        NioHttpContext context = new NioHttpContext(path, handler, this);
+        contexts.add(context);
+        return context;
+    }
+
+    @Override
+    public void removeContext(String path) {
+        if (!contexts.removeIf(context -> context.getPath().equals(path))) {
+            throw new IllegalArgumentException("cannot remove element from list");
+        }
+    }
+
+    @Override
+    public void removeContext(HttpContext context) {
+        if (!contexts.remove(context)) {
+            throw new IllegalArgumentException("cannot remove element from list");
+        }
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        try {
+            return serverChannel == null ? null : (InetSocketAddress) serverChannel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // ===== Dispatch =====
+
+    void dispatch(NioHttpExchange exchange) {
+        Executor current = executor;
+        if (current == null) {
+            handle(exchange);
+            return;
+        }
+        try {
+            current.execute(() -> handle(exchange));
+        } catch (RuntimeException e) {
+            exchange.abort();
+        }
+    }
+
+    private void handle(NioHttpExchange exchange) {
+        NioHttpContext context = findContext(exchange.getRequestURI().getPath());
+        try {
+            if (context == null || context.getHandler() == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            exchange.setContext(context);
+            if (!authenticate(context, exchange)) {
+                return;
+            }
+            new Filter.Chain(context.getFilters(), context.getHandler()).doFilter(exchange);
+        } catch (Throwable e) {
+            if (!exchange.isResponseStarted()) {
+                try {
+                    exchange.sendResponseHeaders(500, -1);
+                    exchange.close();
+                    return;
+                } catch (IOException ignored) {
+                }
+            }
+            exchange.abort();
+        }
+    }
+
+    /**
+     * Run the context's Authenticator before its filters, as the JDK server does: Success sets the
+     * principal, Retry and Failure answer with their status code (e.g. 401 with WWW-Authenticate)
+     * @return true when the exchange may continue to the filters and handler
+     */
+    private static boolean authenticate(NioHttpContext context, NioHttpExchange exchange) throws IOException {
+        Authenticator authenticator = context.getAuthenticator();
+        if (authenticator == null) {
+            return true;
+        }
+
+        Authenticator.Result result = authenticator.authenticate(exchange);
+        if (result instanceof Authenticator.Success) {
+            exchange.setPrincipal(((Authenticator.Success) result).getPrincipal());
+            return true;
+        }
+        int status;
+        if (result instanceof Authenticator.Retry) {
+            status = ((Authenticator.Retry) result).getResponseCode();
+        } else if (result instanceof Authenticator.Failure) {
+            status = ((Authenticator.Failure) result).getResponseCode();
+        } else {
+            throw new IllegalStateException("Unknown authenticator result: " + result);
+        }
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+        return false;
+    }
+
+    /**
+     * Longest registered path that prefixes the request path, as in the JDK server
+     */
+    private NioHttpContext findContext(String path) {
+        if (path == null) {
+            path = "/";
+        }
+        NioHttpContext best = null;
+        for (NioHttpContext context : contexts) {
+            String contextPath = context.getPath();
+            if (path.startsWith(contextPath) && (best == null || contextPath.length() > best.getPath().length())) {
+                best = context;
+            }
+        }
+        return best;
+    }
+
+    private void ensureNotStarted() {
+        if (running) {
+            throw new IllegalStateException("server already started");
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.vcinsidedigital.webcore.server.nio;
+
+import com.sun.net.httpserver.Headers;
+import com.vcinsidedigital.webcore.http.HttpStatus;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental HTTP/1.1 request parser working on a connection's read buffer
+ * The request head must fit in the buffer; the body is copied out as it arrives, and chunked
+ * bodies are decoded on the way, up to the maximum body size.
+ */
+final class RequestParser {
+
+    /**
+     * A complete request: head and body
+     */
+    static final class Request {
+        final String method;
+        final URI uri;
+        final String protocol;
+        final Headers headers;
+        final int contentLength; // -1 for a chunked body
+        byte[] body;
+        final boolean keepAlive;
+        final boolean expectContinue;
+
+        Request(String method, URI uri, String protocol, Headers headers, int contentLength,
+                boolean keepAlive, boolean expectContinue) {
+            this.method = method;
+            this.contentLength = contentLength;
+            this.uri = uri;
+            this.protocol = protocol;
+            this.headers = headers;
+            this.keepAlive = keepAlive;
+            this.expectContinue = expectContinue;
+        }
+    }
+
+    /**
+     * Malformed or unsupported request; the connection is answered with the status and closed
+     */
+    static final class ParseException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final HttpStatus status;
+
+        ParseException(HttpStatus status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    // Body bytes allocated before any arrive; the rest grows as they are read
+    private static final int INITIAL_BODY_CAPACITY = 8 * 1024;
+
+    // Chunked body states: size line, chunk data, CRLF after the data, trailer section
+    private static final int CHUNK_SIZE = 0;
+    private static final int CHUNK_DATA = 1;
+    private static final int CHUNK_END = 2;
+    private static final int TRAILER = 3;
+
+    private final long maxBodySize;
+
+    private Request pending;
+    private int bodyRead;
+    private int chunkState;
+    private long chunkRemaining;
+
+    RequestParser(long maxBodySize) {
+        this.maxBodySize = Math.min(maxBodySize, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Consume bytes from the buffer (in read mode)
+     * @return the request once head and body are complete, otherwise null
+     */
+    Request parse(ByteBuffer buffer) throws ParseException {
+        if (pending == null) {
+            int headEnd = findHeadEnd(buffer);
+            if (headEnd < 0) {
+                checkNotFull(buffer, "Request head too large");
+                return null;
+            }
+
+            byte[] head = new byte[headEnd - buffer.position()];
+            buffer.get(head);
+            buffer.position(headEnd + 4);
+            pending = parseHead(new String(head, StandardCharsets.ISO_8859_1));
+            bodyRead = 0;
+            chunkState = CHUNK_SIZE;
+        }
+
+        boolean complete = pending.contentLength < 0 ? readChunks(buffer) : readFixed(buffer);
+        if (!complete) {
+            return null;
+        }
+
+        Request request = pending;
+        pending = null;
+        return request;
+    }
+
+    /**
+     * Request whose head was parsed but whose body is still arriving
+     */
+    Request getPending() {
+        return pending;
+    }
+
+    private boolean readFixed(ByteBuffer buffer) {
+        appendBody(buffer, Math.min(pending.contentLength - bodyRead, buffer.remaining()), pending.contentLength);
+        return bodyRead == pending.contentLength;
+    }
+
+    /**
+     * Decode as much of a chunked body as the buffer holds (RFC 9112 section 7.1)
+     * Chunk extensions and trailer fields are skipped.
+     * @return true once the last chunk and the trailer section have been read
+     */
+    private boolean readChunks(ByteBuffer buffer) throws ParseException {
+        while (true) {
+            switch (chunkState) {
+                case CHUNK_SIZE -> {
+                    String line = readLine(buffer, "Chunk size line too long");
+                    if (line == null) {
+                        return false;
+                    }
+                    long size = parseChunkSize(line);
+                    if (size > maxBodySize - bodyRead) {
+                        throw new ParseException(HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+                    }
+                    chunkRemaining = size;
+                    chunkState = size == 0 ? TRAILER : CHUNK_DATA;
+                }
+                case CHUNK_DATA -> {
+                    int length = (int) Math.min(chunkRemaining, buffer.remaining());
+                    if (length == 0) {
+                        return false;
+                    }
+                    appendBody(buffer, length, maxBodySize);
+                    chunkRemaining -= length;
+                    if (chunkRemaining == 0) {
+                        chunkState = CHUNK_END;
+                    }
+                }
+                case CHUNK_END -> {
+                    if (buffer.remaining() < 2) {
+                        return false;
+                    }
+                    if (buffer.get() != '\r' || buffer.get() != '\n') {
+                        throw new ParseException(HttpStatus.BAD_REQUEST, "Missing CRLF after chunk data");
+                    }
+                    chunkState = CHUNK_SIZE;
+                }
+                default -> {
+                    String line = readLine(buffer, "Trailer field too long");
+                    if (line == null) {
+                        return false;
+                    }
+                    if (line.isEmpty()) {
+                        if (pending.body.length != bodyRead) {
+                            pending.body = Arrays.copyOf(pending.body, bodyRead);
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static long parseChunkSize(String line) throws ParseException {
+        int end = line.indexOf(';');
+        String digits = (end < 0 ? line : line.substring(0, end)).trim();
+        if (digits.isEmpty()) {
+            throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid chunk size");
+        }
+        long size = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = Character.digit(digits.charAt(i), 16);
+            if (digit < 0) {
+                throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid chunk size");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new ParseException(HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            }
+            size = size * 16 + digit;
+        }
+        return size;
+    }
+
+    /**
+     * Copy body bytes, growing the body with the bytes actually received: a declared length alone
+     * never allocates the whole body
+     */
+    private void appendBody(ByteBuffer buffer, int length, long limit) {
+        if (bodyRead + length > pending.body.length) {
+            int capacity = (int) Math.min(limit, Math.max(bodyRead + length, 2L * pending.body.length));
+            pending.body = Arrays.copyOf(pending.body, capacity);
+        }
+        buffer.get(pending.body, bodyRead, length);
+        bodyRead += length;
+    }
+
+    /**
+     * @return the next CRLF-terminated line, or null while it has not fully arrived
+     */
+    private static String readLine(ByteBuffer buffer, String tooLong) throws ParseException {
+        for (int i = buffer.position(); i + 1 < buffer.limit(); i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                byte[] line = new byte[i - buffer.position()];
+                buffer.get(line);
+                buffer.position(i + 2);
+                return new String(line, StandardCharsets.ISO_8859_1);
+            }
+        }
+        checkNotFull(buffer, tooLong);
+        return null;
+    }
+
+    /**
+     * A buffer filled from its start without the expected terminator can never complete
+     */
+    private static void checkNotFull(ByteBuffer buffer, String message) throws ParseException {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            throw new ParseException(HttpStatus.BAD_REQUEST, message);
+        }
+    }
+
+    private static int findHeadEnd(ByteBuffer buffer) {
+        for (int i = buffer.position(); i + 3 < buffer.limit(); i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n' && buffer.get(i + 2) == '\r' && buffer.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Request parseHead(String head) throws ParseException {
+        String[] lines = head.split("\r\n");
+
+        // Tolerate empty lines before the request line (RFC 9112 section 2.2)
+        int first = 0;
+        while (first < lines.length && lines[first].isEmpty()) first++;
+        if (first == lines.length) {
+            throw new ParseException(HttpStatus.BAD_REQUEST, "Missing request line");
+        }
+
+        String[] requestLine = lines[first].split(" ");
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid request line");
+        }
+
+        URI uri;
+        try {
+            uri = new URI(requestLine[1]);
+        } catch (URISyntaxException e) {
+            throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid request target");
+        }
+
+        Headers headers = new Headers();
+        for (int i = first + 1; i < lines.length; i++) {
+            String line = lines[i];
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid header line");
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+
+        long contentLength = 0;
+        String lengthHeader = headers.getFirst("Content-Length");
+        List<String> transferEncoding = headers.get("Transfer-Encoding");
+        if (transferEncoding != null) {
+            // Both framings at once is how requests are smuggled past proxies (RFC 9112 section 6.3)
+            if (lengthHeader != null) {
+                throw new ParseException(HttpStatus.BAD_REQUEST, "Both Transfer-Encoding and Content-Length");
+            }
+            if (transferEncoding.size() != 1 || !"chunked".equalsIgnoreCase(transferEncoding.get(0).trim())) {
+                throw new ParseException(HttpStatus.NOT_IMPLEMENTED, "Unsupported transfer coding");
+            }
+            contentLength = -1;
+        } else if (lengthHeader != null) {
+            try {
+                contentLength = Long.parseLong(lengthHeader);
+            } catch (NumberFormatException e) {
+                throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid Content-Length");
+            }
+            if (contentLength < 0) {
+                throw new ParseException(HttpStatus.BAD_REQUEST, "Invalid Content-Length");
+            }
+            if (contentLength > maxBodySize || contentLength > Integer.MAX_VALUE - 8) {
+                throw new ParseException(HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large");
+            }
+        }
+
+        String protocol = requestLine[2];
+        String connection = headers.getFirst("Connection");
+        boolean keepAlive = "HTTP/1.1".equals(protocol)
+                ? !"close".equalsIgnoreCase(connection)
+                : "keep-alive".equalsIgnoreCase(connection);
+        boolean expectContinue = "100-continue".equalsIgnoreCase(headers.getFirst("Expect"));
+
+        Request request = new Request(requestLine[0], uri, protocol, headers, (int) contentLength, keepAlive, expectContinue);
+        request.body = new byte[(int) Math.max(0, Math.min(contentLength, INITIAL_BODY_CAPACITY))];
+        return request;
+    }
+}
@@ -0,0 +1,18 @@
+package com.vcinsidedigital.webcore.server.nio;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Exchange able to send file regions without copying them through the heap
+ * Implemented by NioHttpServer exchanges; check with instanceof and fall back to
+ * getResponseBody() otherwise.
+ */
+public interface ZeroCopyExchange {
+
+    /**
+     * Write a file region as (part of) the response body
+     * Call after sendResponseHeaders() with a fixed length; the file may be closed once this returns
+     */
+    void sendFile(FileChannel file, long position, long count) throws IOException;
+}
@@ -0,0 +1,225 @@
+package com.vcinsidedigital.webcore.codec;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.MalformedJsonException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CborReaderTest {
+    private final CborCodec codec = new CborCodec();
+
+    static class Employee {
+        String name;
+        long id;
+        double salary;
+        List<String> tags;
+    }
+
+    // ===== Well-formed input =====
+
+    @Test
+    void roundTripsObjectsWrittenByCborWriter() throws IOException {
+        Employee employee = new Employee();
+        employee.name = "Ana";
+        employee.id = 1L << 40;
+        employee.salary = 1234.5;
+        employee.tags = List.of("dev", "ops");
+
+        TypeCodec<Employee> typeCodec = codec.forType(Employee.class);
+        Employee read = typeCodec.decode(new ByteArrayInputStream(typeCodec.encode(employee)));
+
+        assertEquals("Ana", read.name);
+        assertEquals(1L << 40, read.id);
+        assertEquals(1234.5, read.salary);
+        assertEquals(List.of("dev", "ops"), read.tags);
+    }
+
+    @Test
+    void readsDefiniteAndIndefiniteContainers() throws IOException {
+        // {"a": [1, 2]} with a definite map and array, then both indefinite
+        Type type = new TypeToken<Map<String, List<Integer>>>() {}.getType();
+        Map<String, List<Integer>> expected = Map.of("a", List.of(1, 2));
+
+        assertEquals(expected, decode(type, 0xa1, 0x61, 'a', 0x82, 0x01, 0x02));
+        assertEquals(expected, decode(type, 0xbf, 0x61, 'a', 0x9f, 0x01, 0x02, 0xff, 0xff));
+    }
+
+    @Test
+    void concatenatesIndefiniteStringChunks() throws IOException {
+        assertEquals("hello", decode(String.class, 0x7f, 0x62, 'h', 'e', 0x63, 'l', 'l', 'o', 0xff));
+        assertEquals("", decode(String.class, 0x7f, 0xff));
+    }
+
+    @Test
+    void readsByteStringsAsBase64() throws IOException {
+        assertEquals("AQID", decode(String.class, 0x43, 0x01, 0x02, 0x03));
+    }
+
+    @Test
+    void readsIntegersOfEveryWidth() throws IOException {
+        assertEquals(23L, decode(Long.class, 0x17));
+        assertEquals(24L, decode(Long.class, 0x18, 0x18));
+        assertEquals(1000L, decode(Long.class, 0x19, 0x03, 0xe8));
+        assertEquals(1000000L, decode(Long.class, 0x1a, 0x00, 0x0f, 0x42, 0x40));
+        assertEquals(Long.MAX_VALUE, decode(Long.class, 0x1b, 0x7f, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff));
+        assertEquals(-1000L, decode(Long.class, 0x39, 0x03, 0xe7));
+        assertEquals(new BigInteger("18446744073709551615"),
+                decode(BigInteger.class, 0x1b, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff));
+    }
+
+    @Test
+    void readsHalfSingleAndDoubleFloats() throws IOException {
+        assertEquals(1.5, decode(Double.class, 0xf9, 0x3e, 0x00));
+        assertEquals(100000.0, decode(Double.class, 0xfa, 0x47, 0xc3, 0x50, 0x00));
+        assertEquals(1.1, decode(Double.class, 0xfb, 0x3f, 0xf1, 0x99, 0x99, 0x99, 0x99, 0x99, 0x9a));
+    }
+
+    @Test
+    void readsBignumTagsAndSkipsOtherTags() throws IOException {
+        assertEquals(new BigInteger("18446744073709551616"),
+                decode(BigInteger.class, 0xc2, 0x49, 0x01, 0, 0, 0, 0, 0, 0, 0, 0));
+        assertEquals(new BigInteger("-18446744073709551617"),
+                decode(BigInteger.class, 0xc3, 0x49, 0x01, 0, 0, 0, 0, 0, 0, 0, 0));
+        // Tag 1 (epoch time) in front of an integer
+        assertEquals(1363896240L, decode(Long.class, 0xc1, 0x1a, 0x51, 0x4b, 0x67, 0xb0));
+    }
+
+    @Test
+    void readsSimpleValues() throws IOException {
+        assertEquals(Boolean.TRUE, decode(Boolean.class, 0xf5));
+        assertEquals(Boolean.FALSE, decode(Boolean.class, 0xf4));
+        assertNull(decode(String.class, 0xf6));
+    }
+
+    @Test
+    void readsIntegerMapKeysAsNames() throws IOException {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("1", "a");
+        Type type = new TypeToken<Map<String, String>>() {}.getType();
+        assertEquals(expected, decode(type, 0xa1, 0x01, 0x61, 'a'));
+    }
+
+    @Test
+    void emptyInputIsNull() throws IOException {
+        assertNull(decode(Employee.class));
+    }
+
+    // ===== Truncated input =====
+
+    @Test
+    void rejectsTruncatedItems() {
+        assertMalformed(List.class, 0x82, 0x01);                 // Array of 2 with one item
+        assertMalformed(String.class, 0x65, 'a', 'b');           // Text string of 5 with two bytes
+        assertMalformed(Long.class, 0x1a, 0x00, 0x01);           // 4-byte argument cut short
+        assertMalformed(Double.class, 0xfb, 0x3f, 0xf1);         // Double cut short
+        assertMalformed(List.class, 0x9f, 0x01, 0x02);           // Indefinite array without break
+        assertMalformed(String.class, 0x7f, 0x61, 'a');          // Indefinite string without break
+        assertMalformed(BigInteger.class, 0xc2);                 // Tag without its item
+        assertMalformed(Map.class, 0xa1, 0x61, 'a');             // Key without value
+    }
+
+    // ===== Malformed input =====
+
+    @Test
+    void rejectsTrailingData() {
+        assertMalformed(Long.class, 0x01, 0x02);
+    }
+
+    @Test
+    void rejectsMisplacedBreaks() {
+        assertMalformed(Long.class, 0xff);
+        assertMalformed(List.class, 0x82, 0x01, 0xff);
+        assertMalformed(Map.class, 0xbf, 0x61, 'a', 0xff);       // Break where a value is due
+    }
+
+    @Test
+    void rejectsReservedLengthEncodings() {
+        assertMalformed(Long.class, 0x1c);
+        assertMalformed(String.class, 0x7d);
+        assertMalformed(List.class, 0x9e);
+    }
+
+    @Test
+    void rejectsMixedIndefiniteStringChunks() {
+        assertMalformed(String.class, 0x7f, 0x41, 'a', 0xff);    // Byte string chunk in a text string
+        assertMalformed(String.class, 0x7f, 0x7f, 0xff, 0xff);   // Nested indefinite chunk
+    }
+
+    @Test
+    void rejectsUnsupportedItems() {
+        assertMalformed(String.class, 0xf0);                     // Unassigned simple value
+        assertMalformed(Map.class, 0xa1, 0x81, 0x01, 0x01);      // Array as a map key
+    }
+
+    @Test
+    void rejectsNonFiniteNumbers() {
+        assertMalformed(Double.class, 0xf9, 0x7e, 0x00);         // NaN
+        assertMalformed(Double.class, 0xf9, 0x7c, 0x00);         // Infinity
+    }
+
+    // ===== Oversized input =====
+
+    @Test
+    void rejectsLengthsThatCannotBeAllocated() {
+        assertMalformed(String.class, 0x7b, 0x7f, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff);
+        assertMalformed(String.class, 0x7b, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff);
+        assertMalformed(List.class, 0x9b, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff);
+    }
+
+    @Test
+    void largeDeclaredLengthWithoutDataIsTruncatedNotAllocated() {
+        // 2GB text string and 4G-item array announced, a few bytes sent
+        assertMalformed(String.class, 0x7a, 0x7f, 0xff, 0xff, 0xf0, 'a', 'b', 'c');
+        assertMalformed(List.class, 0x9a, 0xff, 0xff, 0xff, 0xff, 0x01);
+    }
+
+    @Test
+    void rejectsNestingBeyondLimit() throws IOException {
+        byte[] deep = new byte[600];
+        Arrays.fill(deep, (byte) 0x81); // [[[[...
+        assertMalformed(JsonElement.class, deep);
+
+        CborReader reader = new CborReader(new ByteArrayInputStream(deep));
+        MalformedJsonException e = assertThrows(MalformedJsonException.class, () -> {
+            for (int i = 0; i < deep.length; i++) {
+                reader.beginArray();
+            }
+        });
+        assertTrue(e.getMessage().contains("nesting"), e.getMessage());
+    }
+
+    // ===== Helpers =====
+
+    private Object decode(Type type, int... bytes) throws IOException {
+        return codec.forType(type).decode(input(bytes));
+    }
+
+    private void assertMalformed(Type type, int... bytes) {
+        assertThrows(JsonSyntaxException.class, () -> codec.forType(type).decode(input(bytes)));
+    }
+
+    private void assertMalformed(Type type, byte[] bytes) {
+        assertThrows(JsonSyntaxException.class, () -> codec.forType(type).decode(new ByteArrayInputStream(bytes)));
+    }
+
+    private static InputStream input(int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            data[i] = (byte) bytes[i];
+        }
+        return new ByteArrayInputStream(data);
+    }
+}
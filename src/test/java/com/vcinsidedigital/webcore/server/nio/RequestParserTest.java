@@ -0,0 +1,238 @@
+package com.vcinsidedigital.webcore.server.nio;
+
+import com.vcinsidedigital.webcore.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestParserTest {
+    private static final int BUFFER_SIZE = 1024;
+    private static final long MAX_BODY_SIZE = 64 * 1024;
+
+    // ===== Well-formed requests =====
+
+    @Test
+    void parsesRequestLineAndHeaders() throws Exception {
+        RequestParser.Request request = parseOne("GET /api/employees?page=2 HTTP/1.1\r\nHost: localhost\r\nAccept: application/json\r\n\r\n");
+
+        assertEquals("GET", request.method);
+        assertEquals("/api/employees", request.uri.getPath());
+        assertEquals("page=2", request.uri.getQuery());
+        assertEquals("localhost", request.headers.getFirst("Host"));
+        assertEquals("application/json", request.headers.getFirst("Accept"));
+        assertTrue(request.keepAlive);
+        assertEquals(0, request.body.length);
+    }
+
+    @Test
+    void keepAliveFollowsProtocolAndConnectionHeader() throws Exception {
+        assertFalse(parseOne("GET / HTTP/1.1\r\nConnection: close\r\n\r\n").keepAlive);
+        assertFalse(parseOne("GET / HTTP/1.0\r\n\r\n").keepAlive);
+        assertTrue(parseOne("GET / HTTP/1.0\r\nConnection: keep-alive\r\n\r\n").keepAlive);
+    }
+
+    @Test
+    void skipsEmptyLinesBeforeRequestLine() throws Exception {
+        assertEquals("/", parseOne("\r\nGET / HTTP/1.1\r\n\r\n").uri.getPath());
+    }
+
+    @Test
+    void readsContentLengthBodyArrivingByteByByte() throws Exception {
+        String body = "{\"name\":\"Ana\"}";
+        List<RequestParser.Request> requests = feed(
+                "POST /api/employees HTTP/1.1\r\nContent-Length: " + body.length() + "\r\n\r\n" + body, 1);
+
+        assertEquals(1, requests.size());
+        assertEquals(body, new String(requests.get(0).body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void doesNotAllocateDeclaredLengthUpFront() throws Exception {
+        RequestParser parser = new RequestParser(MAX_BODY_SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(ascii("POST / HTTP/1.1\r\nContent-Length: 60000\r\n\r\nabc"));
+
+        assertNull(parser.parse(buffer));
+        assertTrue(parser.getPending().body.length <= 8 * 1024);
+    }
+
+    @Test
+    void parsesPipelinedRequests() throws Exception {
+        List<RequestParser.Request> requests = feed(
+                "GET /a HTTP/1.1\r\n\r\nPOST /b HTTP/1.1\r\nContent-Length: 2\r\n\r\nokGET /c HTTP/1.1\r\n\r\n", BUFFER_SIZE);
+
+        assertEquals(3, requests.size());
+        assertEquals("/a", requests.get(0).uri.getPath());
+        assertEquals("ok", new String(requests.get(1).body, StandardCharsets.US_ASCII));
+        assertEquals("/c", requests.get(2).uri.getPath());
+    }
+
+    @Test
+    void flagsExpectContinueOnceHeadIsRead() throws Exception {
+        RequestParser parser = new RequestParser(MAX_BODY_SIZE);
+        ByteBuffer buffer = ByteBuffer.wrap(ascii("PUT / HTTP/1.1\r\nContent-Length: 5\r\nExpect: 100-continue\r\n\r\n"));
+
+        assertNull(parser.parse(buffer));
+        assertTrue(parser.getPending().expectContinue);
+    }
+
+    // ===== Chunked bodies =====
+
+    @Test
+    void decodesChunkedBodyWithExtensionsAndTrailer() throws Exception {
+        String request = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n" +
+                "5;name=value\r\nhello\r\n" +
+                "7\r\n, world\r\n" +
+                "0\r\nX-Checksum: 1\r\n\r\n";
+
+        for (int step : new int[]{1, 3, BUFFER_SIZE}) {
+            List<RequestParser.Request> requests = feed(request, step);
+            assertEquals(1, requests.size());
+            assertEquals("hello, world", new String(requests.get(0).body, StandardCharsets.US_ASCII));
+            assertEquals(-1, requests.get(0).contentLength);
+        }
+    }
+
+    @Test
+    void decodesEmptyChunkedBodyAndUppercaseHex() throws Exception {
+        assertEquals(0, parseOne("POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n0\r\n\r\n").body.length);
+
+        String body = "x".repeat(0x1A);
+        RequestParser.Request request = parseOne("POST / HTTP/1.1\r\nTransfer-Encoding: Chunked\r\n\r\n1A\r\n" + body + "\r\n0\r\n\r\n");
+        assertEquals(body, new String(request.body, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void chunkedBodyIsFollowedByNextRequest() throws Exception {
+        List<RequestParser.Request> requests = feed(
+                "POST /a HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n2\r\nok\r\n0\r\n\r\nGET /b HTTP/1.1\r\n\r\n", 2);
+
+        assertEquals(2, requests.size());
+        assertEquals("ok", new String(requests.get(0).body, StandardCharsets.US_ASCII));
+        assertEquals("/b", requests.get(1).uri.getPath());
+    }
+
+    // ===== Malformed input: 400 =====
+
+    @Test
+    void rejectsInvalidRequestLine() {
+        assertStatus(HttpStatus.BAD_REQUEST, "GET /\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, "GET / HTTP/2.0\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, "GET  / HTTP/1.1\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, "GET /a|b HTTP/1.1\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, "\r\n\r\n");
+    }
+
+    @Test
+    void rejectsInvalidHeaderLine() {
+        assertStatus(HttpStatus.BAD_REQUEST, "GET / HTTP/1.1\r\nNoColon\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, "GET / HTTP/1.1\r\n: value\r\n\r\n");
+    }
+
+    @Test
+    void rejectsInvalidContentLength() {
+        assertStatus(HttpStatus.BAD_REQUEST, "POST / HTTP/1.1\r\nContent-Length: abc\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, "POST / HTTP/1.1\r\nContent-Length: -1\r\n\r\n");
+    }
+
+    @Test
+    void rejectsHeadThatCannotFitBuffer() {
+        String head = "GET / HTTP/1.1\r\nX-Padding: " + "a".repeat(BUFFER_SIZE) + "\r\n\r\n";
+        assertStatus(HttpStatus.BAD_REQUEST, head);
+    }
+
+    @Test
+    void rejectsBothTransferEncodingAndContentLength() {
+        assertStatus(HttpStatus.BAD_REQUEST,
+                "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\nContent-Length: 5\r\n\r\n0\r\n\r\n");
+    }
+
+    @Test
+    void rejectsMalformedChunks() {
+        String head = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n";
+        assertStatus(HttpStatus.BAD_REQUEST, head + "zz\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, head + "\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, head + "-5\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, head + "0x5\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, head + "5\r\nhelloXX0\r\n\r\n");
+        assertStatus(HttpStatus.BAD_REQUEST, head + "5" + " ".repeat(BUFFER_SIZE));
+        assertStatus(HttpStatus.BAD_REQUEST, head + "0\r\nX-Trailer: " + "a".repeat(BUFFER_SIZE));
+    }
+
+    // ===== Oversized bodies: 413 =====
+
+    @Test
+    void rejectsDeclaredLengthAboveMaximum() {
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, "POST / HTTP/1.1\r\nContent-Length: " + (MAX_BODY_SIZE + 1) + "\r\n\r\n");
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, "POST / HTTP/1.1\r\nContent-Length: 99999999999\r\n\r\n");
+    }
+
+    @Test
+    void rejectsChunkedBodyCrossingMaximum() {
+        String head = "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n";
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, head + Long.toHexString(MAX_BODY_SIZE + 1) + "\r\n");
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, head + "ffffffffffffffffffff\r\n");
+
+        // Each chunk fits, their sum does not
+        String half = "a".repeat((int) (MAX_BODY_SIZE / 2));
+        String chunk = Long.toHexString(half.length()) + "\r\n" + half + "\r\n";
+        assertStatus(HttpStatus.PAYLOAD_TOO_LARGE, head + chunk + chunk + "1\r\n");
+    }
+
+    // ===== Unsupported: 501 =====
+
+    @Test
+    void rejectsTransferCodingsOtherThanChunked() {
+        assertStatus(HttpStatus.NOT_IMPLEMENTED, "POST / HTTP/1.1\r\nTransfer-Encoding: gzip\r\n\r\n");
+        assertStatus(HttpStatus.NOT_IMPLEMENTED, "POST / HTTP/1.1\r\nTransfer-Encoding: gzip, chunked\r\n\r\n");
+        assertStatus(HttpStatus.NOT_IMPLEMENTED,
+                "POST / HTTP/1.1\r\nTransfer-Encoding: chunked\r\nTransfer-Encoding: chunked\r\n\r\n");
+    }
+
+    // ===== Helpers =====
+
+    private static RequestParser.Request parseOne(String input) throws RequestParser.ParseException {
+        List<RequestParser.Request> requests = feed(input, BUFFER_SIZE);
+        assertEquals(1, requests.size());
+        return requests.get(0);
+    }
+
+    private static void assertStatus(HttpStatus expected, String input) {
+        RequestParser.ParseException e = assertThrows(RequestParser.ParseException.class, () -> feed(input, BUFFER_SIZE));
+        assertEquals(expected, e.status, e.getMessage());
+    }
+
+    /**
+     * Deliver the input in reads of at most step bytes, the way NioConnection does: fill the read
+     * buffer, flip, parse until no request completes, compact
+     */
+    private static List<RequestParser.Request> feed(String input, int step) throws RequestParser.ParseException {
+        byte[] bytes = ascii(input);
+        RequestParser parser = new RequestParser(MAX_BODY_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        List<RequestParser.Request> requests = new ArrayList<>();
+
+        int offset = 0;
+        while (offset < bytes.length) {
+            int count = Math.min(step, Math.min(buffer.remaining(), bytes.length - offset));
+            buffer.put(bytes, offset, count);
+            offset += count;
+
+            buffer.flip();
+            RequestParser.Request request;
+            while ((request = parser.parse(buffer)) != null) {
+                requests.add(request);
+            }
+            buffer.compact();
+        }
+        return requests;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}